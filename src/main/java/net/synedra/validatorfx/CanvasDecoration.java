@@ -0,0 +1,107 @@
+package net.synedra.validatorfx;
+
+import javafx.geometry.BoundingBox;
+import javafx.geometry.Bounds;
+import javafx.geometry.Pos;
+import javafx.scene.image.Image;
+
+/** CanvasDecoration decorates nodes by painting an image onto a canvas overlaying the scene.
+ * 
+ * All canvas decorations of a scene share a single canvas, so the size of the scene graph does not grow with the number of decorations.
+ * Decorations are positioned exactly like a {@link GraphicDecoration}; hovering the image shows a tooltip with the given text.
+ * @author r.lichtenberger@synedra.com
+ */
+public class CanvasDecoration extends GraphicDecoration {
+
+	private final Image image;
+	private final String tooltipText;
+	private final String tooltipStyle;
+	private double x;
+	private double y;
+	
+	/** Create CanvasDecoration that will be painted in the top-left corner
+	 * @param image The image to paint over the decorated node
+	 * @param tooltipText The text to show when the image is hovered, may be null
+	 */
+	public CanvasDecoration(Image image, String tooltipText) {
+		this(image, tooltipText, null, Pos.TOP_LEFT, 0, 0);
+	}
+	
+	/** Create CanvasDecoration
+	 * @param image The image to paint over the decorated node
+	 * @param tooltipText The text to show when the image is hovered, may be null
+	 * @param tooltipStyle The (inline) style to use for the tooltip, may be null
+	 * @param position The location of the image 
+	 * @param xOffset Horizontal offset of image (with respect to position)
+	 * @param yOffset Vertical offset of image (with respect to position)
+	 */
+	public CanvasDecoration(Image image, String tooltipText, String tooltipStyle, Pos position, double xOffset, double yOffset) {
+		super(position, xOffset, yOffset);
+		this.image = image;
+		this.tooltipText = tooltipText;
+		this.tooltipStyle = tooltipStyle;
+	}
+	
+	public Image getImage() {
+		return image;
+	}
+	
+	public String getTooltipText() {
+		return tooltipText;
+	}
+	
+	String getTooltipStyle() {
+		return tooltipStyle;
+	}
+	
+	double getX() {
+		return x;
+	}
+	
+	double getY() {
+		return y;
+	}
+	
+	boolean contains(double px, double py) {
+		return px >= x && px < x + image.getWidth() && py >= y && py < y + image.getHeight();
+	}
+	
+	@Override
+	boolean hasOverlay() {
+		return true;
+	}
+	
+	@Override
+	Bounds measureOverlay() {
+		return new BoundingBox(0, 0, image.getWidth(), image.getHeight());
+	}
+	
+	@Override
+	double overlayBaselineOffset() {
+		return image.getHeight();
+	}
+	
+	@Override
+	void placeOverlay(double x, double y) {
+		if (x != this.x || y != this.y) {
+			this.x = x;
+			this.y = y;
+			getStack().getCanvas().moved(this);
+		}
+	}
+	
+	@Override
+	void showOverlay() {
+		getStack().getCanvas().show(this);
+	}
+	
+	@Override
+	void hideOverlay() {
+		getStack().getCanvas().hide(this);
+	}
+	
+	@Override
+	void detachOverlay() {
+		getStack().getCanvas().hide(this);
+	}
+}
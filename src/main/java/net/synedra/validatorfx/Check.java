@@ -1,70 +1,249 @@
 package net.synedra.validatorfx;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.Consumer;
 import java.util.function.Function;
 
+import javafx.animation.Animation;
+import javafx.animation.PauseTransition;
 import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyBooleanProperty;
+import javafx.beans.property.ReadOnlyBooleanWrapper;
 import javafx.beans.property.ReadOnlyObjectProperty;
 import javafx.beans.property.ReadOnlyObjectWrapper;
 import javafx.beans.value.ChangeListener;
 import javafx.beans.value.ObservableValue;
 import javafx.beans.value.WeakChangeListener;
 import javafx.scene.Node;
+import javafx.util.Duration;
 
 /** A check represents a check for validity in a form.
  * @author r.lichtenberger@synedra.com
  */
 public class Check {
 	
-	private Map<String, ObservableValue<? extends Object>> dependencies = new HashMap<>(1);
-	private List<Consumer<Context>> checkMethods = new ArrayList<>();
+	private List<ObservableValue<? extends Object>> dependencies = new ArrayList<>(1);
+	private Map<String, Integer> dependencyKeys = new HashMap<>(1);
+	private List<CheckMethod> checkMethods = new ArrayList<>();
     private ReadOnlyObjectWrapper<ValidationResult> validationResultProperty = new ReadOnlyObjectWrapper<>();
-	private ValidationResult nextValidationResult = new ValidationResult();
+	private Executor asyncExecutor = ForkJoinPool.commonPool();
+	private volatile long generation;
+	private long asyncGeneration = -1;
+	private boolean skipUnchanged;
+	private Object[] lastEvaluatedValues;
+	private long executedEvaluations;
+	private long skippedEvaluations;
+	private Map<List<Object>, ValidationResult> memo;
+	private long cacheHits;
+	private long cacheMisses;
+	private long cacheEvictions;
 	private List<Node> targets = new ArrayList<>(1);
-	private List<Decoration> decorations = new ArrayList<>();
+	private Map<Node, List<AppliedDecoration>> decorations = new HashMap<>();
 	private Function<ValidationMessage, Decoration> decorationFactory;
+	private boolean mergeDecorations;
 	private ChangeListener<? super Object> immediateListener;
 	private ChangeListener<? super Object> immediateWeakListener;
 	private ChangeListener<? super Object> immediateClearListener;
 	private ChangeListener<? super Object> immediateClearWeakListener;
+	private PauseTransition debounceTransition;
+	private ReadOnlyBooleanWrapper pendingProperty = new ReadOnlyBooleanWrapper();
+	private int suspendCount;
+	private boolean recheckDeferred;
 	
 	public class Context {
 		
-		private Context() { }
+		private final Object[] values;
+		private MethodOutcome outcome;
+		
+		private Context(Object[] values) {
+			this.values = values;
+		}
 		
 		/** Get the current value of a dependency.
+		 * The value is the one the dependency had when the recheck started (which matters for async check methods).
 		 * @param <T> The type the value should be casted into
 		 * @param key The key the dependency has been given
 		 * @return The current value of the given depency
 		 */
 		@SuppressWarnings("unchecked")
 		public <T> T get(String key) {
-			return (T) dependencies.get(key).getValue();
+			Integer slot = dependencyKeys.get(key);
+			if (slot == null) {
+				return null;
+			}
+			outcome.reads.set(slot);
+			return (T) values[slot];
+		}
+		
+		/** Get the current value of a dependency without looking it up by name.
+		 * The value is the one the dependency had when the recheck started (which matters for async check methods).
+		 * @param <T> The type of the value
+		 * @param key The key returned by {@link Check#dependsOn(ObservableValue)}
+		 * @return The current value of the given depency
+		 * @throws IllegalArgumentException if the key has been created by another check
+		 */
+		@SuppressWarnings("unchecked")
+		public <T> T get(DependencyKey<T> key) {
+			if (key.getCheck() != Check.this) {
+				throw new IllegalArgumentException("Dependency key belongs to another check");
+			}
+			outcome.reads.set(key.getSlot());
+			return (T) values[key.getSlot()];
 		}
 
 		public Iterable<String> keys() {
-			return dependencies.keySet();
+			return dependencyKeys.keySet();
 		}
 
 		/** Emit a warning.
 		 * @param message The text to be presented to the user as warning message.
 		 */
 		public void warn(String message) {
-			nextValidationResult.addWarning(message);
+			outcome.result.addWarning(message);
 		}
 		
 		/** Emit an error.
 		 * @param message The text to be presented to the user as error message.
 		 */
 		public void error(String message) {
-			nextValidationResult.addError(message);
+			outcome.result.addError(message);
 		}			
 	}
 	
+	private static class AppliedDecoration {
+		private final ValidationMessage message;
+		private final Decoration decoration;
+		
+		private AppliedDecoration(ValidationMessage message, Decoration decoration) {
+			this.message = message;
+			this.decoration = decoration;
+		}
+	}
+	
+	/** The messages a check method emitted in one evaluation and the dependencies it read while doing so. */
+	private static class MethodOutcome {
+		private final ValidationResult result = new ValidationResult();
+		private final BitSet reads = new BitSet();
+	}
+	
+	private static class CheckMethod {
+		private final Consumer<Context> method;
+		private final boolean async;
+		private Object[] evaluatedValues;
+		private MethodOutcome lastOutcome;
+		
+		private CheckMethod(Consumer<Context> method, boolean async) {
+			this.method = method;
+			this.async = async;
+		}
+		
+		/** A method need not be reevaluated if none of the dependencies it read last time has changed since. */
+		private boolean isUpToDate(Object[] values) {
+			if (lastOutcome == null || lastOutcome.reads.isEmpty()) {
+				return false;	// a method that reads no dependency at all might depend on anything
+			}
+			BitSet reads = lastOutcome.reads;
+			for (int slot = reads.nextSetBit(0); slot >= 0; slot = reads.nextSetBit(slot + 1)) {
+				if (!Objects.equals(values[slot], evaluatedValues[slot])) {
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+	
+	/** A single evaluation of all check methods against a snapshot of the dependency values. 
+	 * Package-private so that {@link Validator} can evaluate several checks in parallel. 
+	 */
+	class Evaluation {
+		private final long generation;
+		private final Object[] values;
+		private final CheckMethod[] methods;
+		private final MethodOutcome[] outcomes;
+		private final boolean[] upToDate;
+		private RuntimeException failure;
+		
+		private Evaluation(long generation, Object[] values) {
+			this.generation = generation;
+			this.values = values;
+			methods = checkMethods.toArray(new CheckMethod[0]);
+			outcomes = new MethodOutcome[methods.length];
+			upToDate = new boolean[methods.length];
+			for (int i = 0; i < methods.length; i++) {
+				upToDate[i] = skipUnchanged && methods[i].isUpToDate(values);
+			}
+		}
+		
+		private boolean isCurrent() {
+			return generation == Check.this.generation;
+		}
+		
+		private boolean hasAsyncWork() {
+			for (int i = 0; i < methods.length; i++) {
+				if (methods[i].async && !upToDate[i]) {
+					return true;
+				}
+			}
+			return false;
+		}
+		
+		/** Evaluate either the synchronous or the async check methods that are not up to date.
+		 * @return false if the evaluation has been aborted because it was superseded by a newer one
+		 */
+		private boolean evaluate(boolean async) {
+			Context context = new Context(values);
+			for (int i = 0; i < methods.length; i++) {
+				if (methods[i].async != async || upToDate[i]) {
+					continue;
+				}
+				if (async && !isCurrent()) {
+					return false;
+				}
+				outcomes[i] = new MethodOutcome();
+				context.outcome = outcomes[i];
+				methods[i].method.accept(context);
+			}
+			return true;
+		}
+		
+		Check getCheck() {
+			return Check.this;
+		}
+		
+		/** Evaluate the synchronous check methods, remembering a failure instead of throwing it. 
+		 * May be called off the FX thread, see {@link #finishRecheck(Evaluation)}.
+		 */
+		void evaluateSync() {
+			try {
+				evaluate(false);
+			} catch (RuntimeException e) {
+				failure = e;
+			}
+		}
+		
+		/** Remember the outcomes of the evaluated methods and merge them with the ones of the up-to-date methods. Must be called on the FX thread. */
+		private ValidationResult collectResult() {
+			ValidationResult result = new ValidationResult();
+			for (int i = 0; i < methods.length; i++) {
+				if (outcomes[i] != null) {
+					methods[i].evaluatedValues = values;
+					methods[i].lastOutcome = outcomes[i];
+				}
+				result.addAll(methods[i].lastOutcome.result.getMessages());
+			}
+			return result;
+		}
+	}
+	
 	public Check() {
 		validationResultProperty.set(new ValidationResult());
 		decorationFactory = DefaultDecoration.getFactory();
@@ -75,39 +254,242 @@ public class Check {
 	 * @param checkMethod The code to be called in order to check the validity of this Check.
 	 */
 	public Check withMethod(Consumer<Context> checkMethod) {
-		checkMethods.add(checkMethod);
+		checkMethods.add(new CheckMethod(checkMethod, false));
+		configurationChanged();
+		return this;
+	}
+	
+	/** Add a method to be called off the JavaFX application thread in order to perform this check.
+	 * Async check methods are executed by the executor given in {@link #withExecutor(Executor)} after all synchronous check methods have run.
+	 * They see the values the dependencies had when the recheck started and must not access the scene graph.
+	 * The validation result (and decorations) are updated on the JavaFX application thread once all async methods are done; 
+	 * results of a recheck that has been superseded by a newer one are discarded.
+	 * @param checkMethod The code to be called in order to check the validity of this Check.
+	 */
+	public Check withAsyncMethod(Consumer<Context> checkMethod) {
+		checkMethods.add(new CheckMethod(checkMethod, true));
+		configurationChanged();
+		return this;
+	}
+	
+	/** Set the executor that runs async check methods. By default {@link ForkJoinPool#commonPool()} is used.
+	 * @param executor The executor to run async check methods with.
+	 */
+	public Check withExecutor(Executor executor) {
+		this.asyncExecutor = executor;
 		return this;
 	}
 	
 	public Check dependsOn(String key, ObservableValue<? extends Object> dependency) {
-		dependencies.put(key, dependency);
+		Integer slot = dependencyKeys.get(key);
+		if (slot == null) {
+			dependencyKeys.put(key, dependencies.size());
+			dependencies.add(dependency);
+		} else {
+			dependencies.set(slot, dependency);
+		}
+		configurationChanged();
 		return this;
 	}
 	
+	/** Declare an unnamed dependency whose value can be accessed in check methods using the returned key.
+	 * Accessing a dependency by key is cheaper than accessing it by name and also type-safe:
+	 * <pre>
+	 * DependencyKey&lt;String&gt; username = check.dependsOn(userTextField.textProperty());
+	 * check.withMethod(c -&gt; { String name = c.get(username); ... });
+	 * </pre>
+	 * @param <T> The type of the dependency's value
+	 * @param dependency The observable value to depend on
+	 * @return The key to access the dependency's value with (see {@link Context#get(DependencyKey)})
+	 */
+	public <T> DependencyKey<T> dependsOn(ObservableValue<? extends T> dependency) {
+		DependencyKey<T> key = new DependencyKey<>(this, dependencies.size());
+		dependencies.add(dependency);
+		configurationChanged();
+		return key;
+	}
+	
 	public Check decorates(Node target) {
 		targets.add(target);
+		configurationChanged();
 		return this;
 	}
 	
 	public Check decoratingWith(Function<ValidationMessage, Decoration> decorationFactory) {
 		this.decorationFactory = decorationFactory;
+		configurationChanged();
+		redecorate();	// existing decorations stem from the previous factory
+		return this;
+	}
+	
+	/** Decorate each target with a single decoration even if this check emits several messages. 
+	 * The decoration is created for a message that has the highest severity of all messages and whose text lists the texts of all messages, one per line.
+	 */
+	public Check mergingDecorations() {
+		return mergingDecorations(true);
+	}
+	
+	/** Sets whether each target is decorated with a single, merged decoration (see {@link #mergingDecorations()}) or with a decoration per message (the default).
+	 * @param merge true to merge decorations
+	 */
+	public Check mergingDecorations(boolean merge) {
+		if (merge != mergeDecorations) {
+			mergeDecorations = merge;
+			redecorate();
+		}
 		return this;
 	}
 	
+	private void redecorate() {
+		if (!decorations.isEmpty()) {
+			removeDecorations();
+			applyDecorations(getValidationResult());
+		}
+	}
+	
+	/** Skip rechecks whose dependency values are unchanged, see {@link #skipUnchanged(boolean)}. */
+	public Check skipUnchanged() {
+		return skipUnchanged(true);
+	}
+	
+	/** Sets whether a recheck is skipped if the values of all dependencies are equal to the ones of the last evaluation.
+	 * Likewise, a single check method is not reevaluated if none of the dependencies it read (via the context) during its last evaluation has changed; 
+	 * its previous messages are reused instead.
+	 * Like {@link #memoize(int)}, only use this if the check methods are pure functions of the values given by the context:
+	 * Check methods depending on other state or dependencies holding mutable values (e.g. lists) that may change without being replaced would keep stale results.
+	 * Checks without dependencies and check methods not reading any dependency are never skipped. This is off by default.
+	 * @param skipUnchanged true to skip rechecks with unchanged dependency values, false to always reevaluate (the default)
+	 */
+	public Check skipUnchanged(boolean skipUnchanged) {
+		this.skipUnchanged = skipUnchanged;
+		return this;
+	}
+	
+	/** Caches validation results per combination of dependency values, so that rechecking values that have been checked before will not call the check methods again.
+	 * Only use this if the check methods are pure functions of the values given by the context.
+	 * @param maxEntries The maximum number of results to cache; if exceeded, the least recently used result is evicted. 0 disables caching.
+	 * @throws IllegalArgumentException if maxEntries is negative
+	 */
+	public Check memoize(int maxEntries) {
+		if (maxEntries < 0) {
+			throw new IllegalArgumentException("maxEntries must not be negative");
+		}
+		if (maxEntries == 0) {
+			memo = null;
+		} else {
+			memo = new LinkedHashMap<List<Object>, ValidationResult>(16, 0.75f, true) {
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<List<Object>, ValidationResult> eldest) {
+					boolean evict = size() > maxEntries;
+					if (evict) {
+						cacheEvictions++;
+					}
+					return evict;
+				}
+			};
+		}
+		return this;
+	}
+	
+	private void configurationChanged() {
+		forgetEvaluations();
+		if (debounceTransition == null || debounceTransition.getStatus() != Animation.Status.RUNNING) {
+			pendingProperty.set(false);
+		}
+		if (memo != null) {
+			memo.clear();
+		}
+	}
+	
+	private void forgetEvaluations() {
+		generation++;	// discard results of async check methods still running
+		lastEvaluatedValues = null;
+		for (CheckMethod checkMethod : checkMethods) {
+			checkMethod.lastOutcome = null;
+		}
+	}
+	
 	/** Sets this check to be immediately evaluated if one of its dependencies changes. 
 	 * This method must be called after setting dependencies.
 	 */
 	public Check immediate() {
 		removeAllListeners();
-		immediateListener = (obs, oldv, newv) -> recheck();
+		return immediate((obs, oldv, newv) -> requestRecheck());
+	}
+	
+	/** Sets this check to be evaluated once its dependencies have stopped changing for the given quiet period.
+	 * Bursts of changes (e.g. typing) are coalesced into a single recheck; while a recheck is scheduled, {@link #pendingProperty()} is true.
+	 * This method must be called after setting dependencies.
+	 * @param debounce The quiet period to wait for after the last change of a dependency
+	 */
+	public Check immediate(Duration debounce) {
+		removeAllListeners();
+		debounceTransition = new PauseTransition(debounce);
+		debounceTransition.setOnFinished(event -> requestRecheck());	// the check may have been suspended meanwhile
+		return immediate((obs, oldv, newv) -> scheduleRecheck());
+	}
+	
+	private Check immediate(ChangeListener<? super Object> listener) {
+		immediateListener = listener;
 		immediateWeakListener = new WeakChangeListener<>(immediateListener);
-		for (ObservableValue<? extends Object> dependency : dependencies.values()) {
+		for (ObservableValue<? extends Object> dependency : dependencies) {
 			dependency.addListener(immediateWeakListener);
 		}
-		Platform.runLater(this::recheck);	// to circumvent problems with decoration pane vs. dialog
+		Platform.runLater(this::requestRecheck);	// to circumvent problems with decoration pane vs. dialog
 		return this;
 	}
 	
+	private void requestRecheck() {
+		if (suspendCount > 0) {
+			recheckDeferred = true;
+		} else {
+			recheck();
+		}
+	}
+	
+	private void scheduleRecheck() {
+		if (suspendCount > 0) {
+			recheckDeferred = true;
+			return;
+		}
+		pendingProperty.set(true);
+		debounceTransition.playFromStart();
+	}
+	
+	/** Suspends rechecks triggered by dependency changes in immediate mode until {@link #resume()} is called.
+	 * Calls may be nested; explicit calls to {@link #recheck()} are still performed.
+	 */
+	public void suspend() {
+		suspendCount++;
+	}
+	
+	/** Ends a suspension started by {@link #suspend()}. If dependencies changed while suspended, a single recheck is performed now.
+	 * @throws IllegalStateException if this check is not suspended
+	 */
+	public void resume() {
+		if (suspendCount == 0) {
+			throw new IllegalStateException("Check is not suspended");
+		}
+		suspendCount--;
+		if (suspendCount == 0 && recheckDeferred) {
+			recheck();
+		}
+	}
+	
+	private void cancelScheduledRecheck() {
+		if (debounceTransition != null) {
+			debounceTransition.stop();
+		}
+		pendingProperty.set(isAsyncEvaluationRunning());
+	}
+	
+	/** Whether async check methods of the current evaluation are still running. */
+	private boolean isAsyncEvaluationRunning() {
+		return asyncGeneration == generation;
+	}
+	
 	
 	/** Sets this check to be immediately cleared (but not rechecked) if one of its dependencies changes. 
 	 * This method must be called after setting dependencies.
@@ -116,7 +498,7 @@ public class Check {
 		removeAllListeners();
 		immediateClearListener = (obs, oldv, newv) -> clear();
 		immediateClearWeakListener = new WeakChangeListener<>(immediateClearListener);
-		for (ObservableValue<? extends Object> dependency : dependencies.values()) {
+		for (ObservableValue<? extends Object> dependency : dependencies) {
 			dependency.addListener(immediateClearWeakListener);
 		}
 		return this;
@@ -134,49 +516,208 @@ public class Check {
 	private void removeAllListeners() {
 		removeListener(immediateWeakListener);
 		removeListener(immediateClearWeakListener);
+		cancelScheduledRecheck();
+		debounceTransition = null;
 	}
 	
 	private void removeListener(ChangeListener<? super Object> listener) {
 		if (listener != null) {
-			for (ObservableValue<? extends Object> dependency : dependencies.values()) {
+			for (ObservableValue<? extends Object> dependency : dependencies) {
 				dependency.removeListener(listener);
 			}			
 		}
 	}
 	
-	/** Evaluate all dependencies and apply decorations of this check. You should not normally need to call this method directly. */
+	/** Evaluate all dependencies and apply decorations of this check. You should not normally need to call this method directly. 
+	 * If this check has async check methods, the validation result will be updated later on (see {@link #pendingProperty()}).
+	 */
 	public void recheck() {
-		nextValidationResult = new ValidationResult();
-		Context context = new Context();
-		checkMethods.forEach(checkMethod -> checkMethod.accept(context));
-		removeDecorations();
+		Evaluation evaluation = prepareRecheck();
+		if (evaluation != null) {
+			evaluation.evaluateSync();
+			finishRecheck(evaluation);	// rethrows a failure of a check method after forgetting the evaluated values
+		}
+	}
+	
+	/** First phase of a recheck: snapshot the dependencies. Must be called on the FX thread.
+	 * @return The evaluation to perform or null if there is nothing to evaluate (dependencies unchanged or result taken from the memo)
+	 */
+	Evaluation prepareRecheck() {
+		cancelScheduledRecheck();
+		recheckDeferred = false;
+		Object[] values = snapshotDependencies();
+		if (skipUnchanged && values.length > 0 && Arrays.equals(values, lastEvaluatedValues)) {
+			skippedEvaluations++;
+			return null;
+		}
+		lastEvaluatedValues = values;
+		long currentGeneration = ++generation;
+		pendingProperty.set(false);	// async methods still running have been superseded
+		if (memo != null) {
+			ValidationResult cachedResult = memo.get(Arrays.asList(values));
+			if (cachedResult != null) {
+				cacheHits++;
+				applyValidationResult(cachedResult);
+				return null;
+			}
+			cacheMisses++;
+		}
+		executedEvaluations++;
+		return new Evaluation(currentGeneration, values);
+	}
+	
+	/** Last phase of a recheck after the synchronous check methods have been evaluated: start async methods or apply the result. 
+	 * Must be called on the FX thread.
+	 * @param evaluation The evaluation returned by {@link #prepareRecheck()}
+	 * @throws RuntimeException if a check method failed in {@link Evaluation#evaluateSync()}
+	 */
+	void finishRecheck(Evaluation evaluation) {
+		if (evaluation.failure != null) {
+			if (evaluation.isCurrent()) {
+				lastEvaluatedValues = null;
+			}
+			throw evaluation.failure;
+		}
+		if (evaluation.hasAsyncWork()) {
+			asyncGeneration = evaluation.generation;
+			pendingProperty.set(true);
+			asyncExecutor.execute(() -> evaluateAsync(evaluation));
+		} else {
+			complete(evaluation);
+		}
+	}
+	
+	private Object[] snapshotDependencies() {
+		Object[] values = new Object[dependencies.size()];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = dependencies.get(i).getValue();
+		}
+		return values;
+	}
+	
+	private void evaluateAsync(Evaluation evaluation) {
+		try {
+			if (!evaluation.evaluate(true)) {
+				return;	// superseded by a newer recheck, no need to finish
+			}
+		} catch (RuntimeException e) {
+			Platform.runLater(() -> {
+				if (evaluation.isCurrent()) {
+					asyncGeneration = -1;
+					pendingProperty.set(false);
+					lastEvaluatedValues = null;
+				}
+			});
+			throw e;
+		}
+		Platform.runLater(() -> {
+			if (evaluation.isCurrent()) {
+				asyncGeneration = -1;
+				pendingProperty.set(false);
+				complete(evaluation);
+			}
+		});
+	}
+	
+	private void complete(Evaluation evaluation) {
+		ValidationResult result = evaluation.collectResult();
+		if (memo != null) {
+			memo.put(Arrays.asList(evaluation.values), result);
+		}
+		applyValidationResult(result);
+	}
+	
+	private void applyValidationResult(ValidationResult nextValidationResult) {
+		applyDecorations(nextValidationResult);
+		setNextValidationResult(nextValidationResult);
+	}
+	
+	private void applyDecorations(ValidationResult nextValidationResult) {
+		List<ValidationMessage> messages = nextValidationResult.getMessages();
+		if (mergeDecorations && messages.size() > 1) {
+			messages = List.of(mergeMessages(messages));
+		}
 		for (Node target : targets) {
-			for (ValidationMessage validationMessage : nextValidationResult.getMessages()) {
-				Decoration decoration = decorationFactory.apply(validationMessage);
-				decorations.add(decoration);
-				decoration.add(target);				
+			reconcileDecorations(target, messages);
+		}
+	}
+	
+	private static ValidationMessage mergeMessages(List<ValidationMessage> messages) {
+		Severity severity = Severity.WARNING;
+		StringBuilder text = new StringBuilder();
+		for (ValidationMessage message : messages) {
+			if (message.getSeverity() == Severity.ERROR) {
+				severity = Severity.ERROR;
+			}
+			if (text.length() > 0) {
+				text.append('\n');
+			}
+			text.append(message.getText());
+		}
+		return new ValidationMessage(severity, text.toString());
+	}
+	
+	/** Brings the decorations of target in line with the given messages: 
+	 * Decorations of messages that are still present are kept as they are, only vanished ones are removed and new ones are created. 
+	 */
+	private void reconcileDecorations(Node target, List<ValidationMessage> messages) {
+		List<AppliedDecoration> previous = decorations.remove(target);
+		if (previous == null) {
+			if (messages.isEmpty()) {
+				return;
+			}
+			previous = new ArrayList<>(0);
+		}
+		AppliedDecoration[] kept = new AppliedDecoration[messages.size()];
+		for (int i = 0; i < kept.length; i++) {
+			kept[i] = takeDecoration(previous, messages.get(i));
+		}
+		// remove before add, so decorations like style classes that are shared between messages end up being set
+		for (AppliedDecoration vanished : previous) {
+			vanished.decoration.remove(target);
+		}
+		List<AppliedDecoration> current = new ArrayList<>(kept.length);
+		for (int i = 0; i < kept.length; i++) {
+			if (kept[i] == null) {
+				Decoration decoration = decorationFactory.apply(messages.get(i));
+				decoration.add(target);
+				kept[i] = new AppliedDecoration(messages.get(i), decoration);
+			}
+			current.add(kept[i]);
+		}
+		if (!current.isEmpty()) {
+			decorations.put(target, current);
+		}
+	}
+	
+	private static AppliedDecoration takeDecoration(List<AppliedDecoration> candidates, ValidationMessage message) {
+		for (int i = 0; i < candidates.size(); i++) {
+			if (candidates.get(i).message.equals(message)) {
+				return candidates.remove(i);
 			}
 		}
-		setNextValidationResult();
+		return null;
 	}
 	
 	/** Clear this check, i.e. remove its decorations and set empty validation result. */
 	public void clear() {
+		forgetEvaluations();
+		cancelScheduledRecheck();
+		recheckDeferred = false;
 		removeDecorations();
-		nextValidationResult = new ValidationResult();
-		setNextValidationResult();
+		setNextValidationResult(new ValidationResult());
 	}
 	
 	private void removeDecorations() {
-		for (Node target : targets) {
-			for (Decoration decoration : decorations) {
-				decoration.remove(target);				
+		for (Map.Entry<Node, List<AppliedDecoration>> entry : decorations.entrySet()) {
+			for (AppliedDecoration applied : entry.getValue()) {
+				applied.decoration.remove(entry.getKey());
 			}
 		}
 		decorations.clear();		
 	}
 	
-	private void setNextValidationResult() {
+	private void setNextValidationResult(ValidationResult nextValidationResult) {
 		if (!nextValidationResult.getMessages().equals(getValidationResult().getMessages())) {
 			validationResultProperty.set(nextValidationResult);
 		}
@@ -195,4 +736,50 @@ public class Check {
 	public ReadOnlyObjectProperty<ValidationResult> validationResultProperty() {
 	    return validationResultProperty.getReadOnlyProperty();
 	}
+	
+	/** Indicates whether a recheck has been scheduled (see {@link #immediate(Duration)}) or async check methods are still running.
+	 * @return The pending property.
+	 */
+	public ReadOnlyBooleanProperty pendingProperty() {
+		return pendingProperty.getReadOnlyProperty();
+	}
+	
+	public boolean isPending() {
+		return pendingProperty.get();
+	}
+	
+	/** Get the number of rechecks that actually evaluated the check methods.
+	 * @return The number of executed evaluations
+	 */
+	public long getExecutedEvaluations() {
+		return executedEvaluations;
+	}
+	
+	/** Get the number of rechecks that were skipped because the values of the dependencies did not change (see {@link #skipUnchanged(boolean)}).
+	 * @return The number of skipped evaluations
+	 */
+	public long getSkippedEvaluations() {
+		return skippedEvaluations;
+	}
+	
+	/** Get the number of rechecks whose result was taken from the cache (see {@link #memoize(int)}).
+	 * @return The number of cache hits
+	 */
+	public long getCacheHits() {
+		return cacheHits;
+	}
+	
+	/** Get the number of rechecks whose result was not yet cached (see {@link #memoize(int)}).
+	 * @return The number of cache misses
+	 */
+	public long getCacheMisses() {
+		return cacheMisses;
+	}
+	
+	/** Get the number of results evicted from the cache because it was full (see {@link #memoize(int)}).
+	 * @return The number of cache evictions
+	 */
+	public long getCacheEvictions() {
+		return cacheEvictions;
+	}
 }
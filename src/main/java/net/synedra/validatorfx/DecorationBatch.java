@@ -0,0 +1,105 @@
+package net.synedra.validatorfx;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javafx.collections.ObservableList;
+import javafx.css.PseudoClass;
+import javafx.scene.Node;
+
+/** DecorationBatch collects the style class and pseudo class changes decorations make while a batch is open
+ * and applies only the net change to each node once the outermost batch ends.
+ * This way a node that e.g. stays invalid during {@link Validator#validate()} does not get its style class removed and re-added (and its CSS re-applied twice).
+ * Outside of a batch changes are applied immediately. Must only be used on the JavaFX application thread.
+ * @author r.lichtenberger@synedra.com
+ */
+final class DecorationBatch {
+
+	private static int depth;
+	private static Map<Node, Changes> changes = new LinkedHashMap<>();
+
+	private static class Changes {
+		private final Map<String, Boolean> styleClasses = new LinkedHashMap<>();
+		private final Map<PseudoClass, Boolean> pseudoClasses = new LinkedHashMap<>();
+	}
+
+	private DecorationBatch() {
+	}
+
+	static void begin() {
+		depth++;
+	}
+
+	/** Ends a batch started by {@link #begin()}, applying all collected changes if it is the outermost one.
+	 * @throws IllegalStateException if no batch is open
+	 */
+	static void end() {
+		if (depth == 0) {
+			throw new IllegalStateException("No decoration batch open");
+		}
+		depth--;
+		if (depth == 0 && !changes.isEmpty()) {
+			Map<Node, Changes> pending = changes;
+			changes = new LinkedHashMap<>();
+			pending.forEach(DecorationBatch::apply);
+		}
+	}
+
+	static void addStyleClasses(Node node, Collection<String> styleClasses) {
+		if (depth == 0) {
+			List<String> styleClassList = node.getStyleClass();
+			List<String> toAdd = new ArrayList<>();
+			for (String styleClass : styleClasses) {
+				if (!styleClassList.contains(styleClass)) {	// don't add a style class that is already added.
+					toAdd.add(styleClass);
+				}
+			}
+			styleClassList.addAll(toAdd);
+		} else {
+			Map<String, Boolean> pending = changes.computeIfAbsent(node, n -> new Changes()).styleClasses;
+			styleClasses.forEach(styleClass -> pending.put(styleClass, Boolean.TRUE));
+		}
+	}
+
+	static void removeStyleClasses(Node node, Collection<String> styleClasses) {
+		if (depth == 0) {
+			node.getStyleClass().removeAll(styleClasses);
+		} else {
+			Map<String, Boolean> pending = changes.computeIfAbsent(node, n -> new Changes()).styleClasses;
+			styleClasses.forEach(styleClass -> pending.put(styleClass, Boolean.FALSE));
+		}
+	}
+
+	static void setPseudoClassState(Node node, PseudoClass pseudoClass, boolean active) {
+		if (depth == 0) {
+			node.pseudoClassStateChanged(pseudoClass, active);
+		} else {
+			changes.computeIfAbsent(node, n -> new Changes()).pseudoClasses.put(pseudoClass, active);
+		}
+	}
+
+	private static void apply(Node node, Changes nodeChanges) {
+		if (!nodeChanges.styleClasses.isEmpty()) {
+			ObservableList<String> current = node.getStyleClass();
+			List<String> next = new ArrayList<>(current);
+			nodeChanges.styleClasses.forEach((styleClass, present) -> {
+				if (!present) {
+					next.removeIf(styleClass::equals);
+				} else if (!next.contains(styleClass)) {
+					next.add(styleClass);
+				}
+			});
+			if (!next.equals(current)) {
+				current.setAll(next);
+			}
+		}
+		nodeChanges.pseudoClasses.forEach((pseudoClass, active) -> {
+			if (node.getPseudoClassStates().contains(pseudoClass) != active) {
+				node.pseudoClassStateChanged(pseudoClass, active);
+			}
+		});
+	}
+}
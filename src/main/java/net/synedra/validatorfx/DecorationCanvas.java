@@ -0,0 +1,132 @@
+package net.synedra.validatorfx;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import javafx.application.Platform;
+import javafx.event.EventHandler;
+import javafx.geometry.Point2D;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.control.Tooltip;
+import javafx.scene.input.MouseEvent;
+
+/** DecorationCanvas is the layer of a {@link GraphicDecorationStackPane} all {@link CanvasDecoration}s are painted onto.
+ * 
+ * The canvas is mouse transparent, hovering is detected by an event filter on the scene 
+ * (the stack itself does not receive mouse events if it is not the scene's root, see {@link GraphicDecorationStackPane.OverlayMode#CHILD_OF_ROOT}).
+ * Repainting is coalesced: changes only mark the canvas dirty, it is repainted at most once per pulse, after the stack has laid out its decorations.
+ * @author r.lichtenberger@synedra.com
+ */
+class DecorationCanvas extends Canvas {
+
+	private static final double TOOLTIP_OFFSET = 12;
+	
+	private final GraphicDecorationStackPane stack;
+	private final Set<CanvasDecoration> shown = new LinkedHashSet<>();
+	private boolean dirty;
+	private Tooltip tooltip;
+	private CanvasDecoration hovered;
+	private final EventHandler<MouseEvent> moveFilter = this::updateHover;
+	private final EventHandler<MouseEvent> exitFilter = event -> setHovered(null, event);
+	
+	DecorationCanvas(GraphicDecorationStackPane stack) {
+		this.stack = stack;
+		setManaged(false);
+		setMouseTransparent(true);
+		widthProperty().bind(stack.widthProperty());
+		heightProperty().bind(stack.heightProperty());
+		widthProperty().addListener(observable -> repaint());
+		heightProperty().addListener(observable -> repaint());
+		sceneProperty().addListener((observable, oldScene, newScene) -> {
+			if (oldScene != null) {
+				oldScene.removeEventFilter(MouseEvent.MOUSE_MOVED, moveFilter);
+				oldScene.removeEventFilter(MouseEvent.MOUSE_EXITED, exitFilter);
+				setHovered(null, null);
+			}
+			if (newScene != null) {
+				newScene.addEventFilter(MouseEvent.MOUSE_MOVED, moveFilter);
+				newScene.addEventFilter(MouseEvent.MOUSE_EXITED, exitFilter);
+			}
+		});
+	}
+	
+	void show(CanvasDecoration decoration) {
+		if (shown.add(decoration)) {
+			repaint();
+		}
+	}
+	
+	void hide(CanvasDecoration decoration) {
+		if (shown.remove(decoration)) {
+			if (hovered == decoration) {
+				setHovered(null, null);
+			}
+			repaint();
+		}
+	}
+	
+	void moved(CanvasDecoration decoration) {
+		if (shown.contains(decoration)) {
+			repaint();
+		}
+	}
+	
+	/** Repaint the canvas with the next pulse. */
+	void repaint() {
+		if (!dirty) {
+			dirty = true;
+			Platform.requestNextPulse();
+		}
+	}
+	
+	/** Paint all shown decorations if the canvas has been marked dirty since it was painted last. Called by the stack once per pulse. */
+	void paintIfDirty() {
+		if (!dirty) {
+			return;
+		}
+		dirty = false;
+		GraphicsContext gc = getGraphicsContext2D();
+		gc.clearRect(0, 0, getWidth(), getHeight());
+		for (CanvasDecoration decoration : shown) {
+			gc.drawImage(decoration.getImage(), decoration.getX(), decoration.getY());
+		}
+	}
+	
+	/** Get the tooltip shown for the hovered decoration, null if none has been hovered yet. */
+	Tooltip getTooltip() {
+		return tooltip;
+	}
+	
+	private void updateHover(MouseEvent event) {
+		CanvasDecoration hit = null;
+		Point2D point = stack.sceneToLocal(event.getSceneX(), event.getSceneY());
+		for (CanvasDecoration decoration : shown) {	// last painted is on top
+			if (decoration.contains(point.getX(), point.getY())) {
+				hit = decoration;
+			}
+		}
+		setHovered(hit, event);
+	}
+	
+	private void setHovered(CanvasDecoration decoration, MouseEvent event) {
+		if (decoration == hovered) {
+			return;
+		}
+		hovered = decoration;
+		if (decoration == null || decoration.getTooltipText() == null) {
+			if (tooltip != null) {
+				tooltip.hide();
+			}
+			return;
+		}
+		if (tooltip == null) {
+			tooltip = new Tooltip();
+			tooltip.setAutoFix(true);
+			tooltip.setOpacity(.9);
+		}
+		tooltip.setText(decoration.getTooltipText());
+		tooltip.setStyle(decoration.getTooltipStyle());
+		tooltip.show(stack, event.getScreenX() + TOOLTIP_OFFSET, event.getScreenY() + TOOLTIP_OFFSET);
+	}
+}
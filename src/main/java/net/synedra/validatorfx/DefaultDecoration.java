@@ -1,13 +1,21 @@
 package net.synedra.validatorfx;
 
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.Consumer;
 import java.util.function.Function;
 
+import javafx.css.PseudoClass;
 import javafx.geometry.Pos;
 import javafx.scene.Node;
+import javafx.scene.Parent;
 import javafx.scene.control.Label;
 import javafx.scene.control.Tooltip;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
+import javafx.scene.input.MouseEvent;
 
 /**
  * DefaultDecoration provides default graphical decorations.
@@ -28,7 +36,19 @@ public class DefaultDecoration {
 	private static final String WARNING_TOOLTIP_EFFECT = POPUP_SHADOW_EFFECT + TOOLTIP_COMMON_EFFECTS
 			+ "-fx-background-color: FFFFCC; -fx-text-fill: CC9900; -fx-border-color: CC9900;";
 
+	private static final String TOOLTIP_TEXT_KEY = DefaultDecoration.class.getName() + ".tooltipText";
+	private static final int MAX_POOLED_NODES_PER_SEVERITY = 256;
+	private static final Map<Severity, Deque<Label>> nodePool = new EnumMap<>(Severity.class);
+	private static final Map<Severity, PseudoClass> pseudoClasses = new EnumMap<>(Severity.class);
+
+	static {
+		for (Severity severity : Severity.values()) {
+			pseudoClasses.put(severity, PseudoClass.getPseudoClass("validatorfx-" + severity.toString().toLowerCase()));
+		}
+	}
+
 	private static Function<ValidationMessage, Decoration> factory;
+	private static Consumer<Tooltip> tooltipCustomizer;
 
 	private DefaultDecoration() {
 	}
@@ -44,29 +64,100 @@ public class DefaultDecoration {
 		DefaultDecoration.factory = factory;
 	}
 
+	/** Set code to customize the tooltips of graphic decorations created by {@link #createGraphicDecoration(ValidationMessage)}.
+	 * Tooltips are created lazily when a decoration is hovered for the first time (or its node is obtained via {@link GraphicDecoration#getDecorationNode()}); the customizer is called once for each of them. 
+	 * @param tooltipCustomizer The code to call for each tooltip created or null if tooltips shall not be customized
+	 */
+	public static void setTooltipCustomizer(Consumer<Tooltip> tooltipCustomizer) {
+		DefaultDecoration.tooltipCustomizer = tooltipCustomizer;
+	}
+
+	/** Create decoration nodes in advance so later graphic decorations do not have to.
+	 * Use this during application startup to move the cost of creating (and class loading) decoration nodes off the first validation.
+	 * @param nodesPerSeverity The number of nodes to keep ready for each severity (limited by the size of the internal pool)
+	 */
+	public static void prepare(int nodesPerSeverity) {
+		for (Severity severity : Severity.values()) {
+			Deque<Label> pooled = nodePool.computeIfAbsent(severity, s -> new ArrayDeque<>());
+			int wanted = Math.min(nodesPerSeverity, MAX_POOLED_NODES_PER_SEVERITY);
+			while (pooled.size() < wanted) {
+				pooled.push(createDecorationNode(severity));
+			}
+		}
+	}
+
 	public static StyleClassDecoration createStyleClassDecoration(ValidationMessage message) {
 		return new StyleClassDecoration("validatorfx-" + message.getSeverity().toString().toLowerCase());
 	}
 
+	/** Create a decoration switching on the pseudo class for the message's severity (i.e. <code>:validatorfx-error</code> or <code>:validatorfx-warning</code>). */
+	public static PseudoClassDecoration createPseudoClassDecoration(ValidationMessage message) {
+		return new PseudoClassDecoration(pseudoClasses.get(message.getSeverity()));
+	}
+
+	/** Create a graphic decoration showing an icon for the message's severity and the message text as tooltip.
+	 * Decoration nodes are recycled when the decoration is removed and reused by later decorations of the same severity,
+	 * unless they have been obtained via {@link GraphicDecoration#getDecorationNode()} (e.g. for customization).
+	 * The tooltip is only created once the decoration is hovered, or as soon as the node is obtained via {@link GraphicDecoration#getDecorationNode()}.
+	 */
 	public static GraphicDecoration createGraphicDecoration(ValidationMessage message) {
-		return new GraphicDecoration(createDecorationNode(message),Pos.TOP_LEFT);
+		return new GraphicDecoration(() -> acquireDecorationNode(message), node -> recycleDecorationNode(message.getSeverity(), node),
+				node -> installTooltip((Label) node, message.getSeverity()), Pos.TOP_LEFT, 0, 0);
 	}
 
-	private static Node createDecorationNode(ValidationMessage message) {
-		Node graphic = Severity.ERROR == message.getSeverity() ? createErrorNode() : createWarningNode();
+	/** Create a canvas decoration painting the icon for the message's severity and showing the message text as tooltip. */
+	public static CanvasDecoration createCanvasDecoration(ValidationMessage message) {
+		boolean error = Severity.ERROR == message.getSeverity();
+		return new CanvasDecoration(error ? ERROR_IMAGE : WARNING_IMAGE, message.getText(), error ? ERROR_TOOLTIP_EFFECT : WARNING_TOOLTIP_EFFECT, Pos.TOP_LEFT, 0, 0);
+	}
+
+	private static Node acquireDecorationNode(ValidationMessage message) {
+		Deque<Label> pooled = nodePool.get(message.getSeverity());
+		Label label = pooled == null || pooled.isEmpty() ? createDecorationNode(message.getSeverity()) : pooled.pop();
+		label.getProperties().put(TOOLTIP_TEXT_KEY, message.getText());
+		if (label.getTooltip() != null) {
+			label.getTooltip().setText(message.getText());
+		}
+		return label;
+	}
+	
+	private static void recycleDecorationNode(Severity severity, Node node) {
+		Deque<Label> pooled = nodePool.computeIfAbsent(severity, s -> new ArrayDeque<>());
+		Parent parent = node.getParent();	// the stack removes detached nodes with the next pulse, reusing them before is fine
+		if ((parent == null || parent instanceof GraphicDecorationStackPane) && pooled.size() < MAX_POOLED_NODES_PER_SEVERITY) {
+			pooled.push((Label) node);
+		}
+	}
+
+	private static Label createDecorationNode(Severity severity) {
+		Node graphic = Severity.ERROR == severity ? createErrorNode() : createWarningNode();
 		graphic.getStyleClass().add("shadow_effect");
 		Label label = new Label();
 		label.setGraphic(graphic);
-		label.setTooltip(createTooltip(message));
 		label.setAlignment(Pos.CENTER);
+		label.addEventHandler(MouseEvent.MOUSE_ENTERED, event -> installTooltip(label, severity));
 		return label;
 	}
+	
+	private static void installTooltip(Label label, Severity severity) {
+		if (label.getTooltip() == null) {
+			label.setTooltip(createTooltip(severity, getTooltipText(label)));
+		}
+	}
+	
+	/** Get the text the tooltip of a decoration node created by {@link #createGraphicDecoration(ValidationMessage)} shows (or will show once hovered). */
+	static String getTooltipText(Node decorationNode) {
+		return (String) decorationNode.getProperties().get(TOOLTIP_TEXT_KEY);
+	}
 
-	private static Tooltip createTooltip(ValidationMessage message) {
-		Tooltip tooltip = new Tooltip(message.getText());
+	private static Tooltip createTooltip(Severity severity, String text) {
+		Tooltip tooltip = new Tooltip(text);
 		tooltip.setOpacity(.9);
 		tooltip.setAutoFix(true);
-		tooltip.setStyle(Severity.ERROR == message.getSeverity() ? ERROR_TOOLTIP_EFFECT : WARNING_TOOLTIP_EFFECT);
+		tooltip.setStyle(Severity.ERROR == severity ? ERROR_TOOLTIP_EFFECT : WARNING_TOOLTIP_EFFECT);
+		if (tooltipCustomizer != null) {
+			tooltipCustomizer.accept(tooltip);
+		}
 		return tooltip;
 	}
 
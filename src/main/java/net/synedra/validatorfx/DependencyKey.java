@@ -0,0 +1,24 @@
+package net.synedra.validatorfx;
+
+/** A DependencyKey gives typed access to the value of a dependency declared by {@link Check#dependsOn(javafx.beans.value.ObservableValue)}.
+ * @param <T> The type of the dependency's value 
+ * @author r.lichtenberger@synedra.com
+ */
+public final class DependencyKey<T> {
+
+	private final Check check;
+	private final int slot;
+	
+	DependencyKey(Check check, int slot) {
+		this.check = check;
+		this.slot = slot;
+	}
+	
+	Check getCheck() {
+		return check;
+	}
+	
+	int getSlot() {
+		return slot;
+	}
+}
@@ -0,0 +1,225 @@
+package net.synedra.validatorfx;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import javafx.beans.InvalidationListener;
+import javafx.beans.value.ChangeListener;
+import javafx.beans.value.ObservableValue;
+import javafx.event.EventHandler;
+import javafx.scene.Node;
+import javafx.scene.Scene;
+import javafx.scene.control.ScrollPane;
+import javafx.scene.control.Tooltip;
+import javafx.scene.input.MouseEvent;
+
+/** DisabledTooltip will disable a node in case validation fails and display a tooltip explaining why the node is not enabled.
+ * Like {@link TooltipWrapper} it works around JDK-8090379 (tooltips don't show on disabled controls), but it does not wrap the node into an additional container:
+ * all DisabledTooltips of a scene share a single mouse event filter on the scene, which hit tests their nodes (taking ScrollPanes and covering nodes into account), and a single tooltip.
+ * Listeners are only registered with the scene while the node is part of it.
+ * @author r.lichtenberger@synedra.com
+ */
+public class DisabledTooltip {
+
+	private static final String KEY = DisabledTooltip.class.getName();
+	private static final double TOOLTIP_OFFSET = 12;
+
+	private final Node node;
+	private final ObservableValue<Boolean> disabledProperty;
+	private final ObservableValue<String> tooltipText;
+	private final ChangeListener<Scene> sceneListener = (observable, oldValue, newValue) -> attachTo(newValue);
+	private SceneTooltip sceneTooltip;
+	private TreeVisibility visibility;
+
+	private DisabledTooltip(Node node, ObservableValue<Boolean> disabledProperty, ObservableValue<String> tooltipText) {
+		this.node = node;
+		this.disabledProperty = disabledProperty;
+		this.tooltipText = tooltipText;
+	}
+
+	/** Disable node whenever disabledProperty is true and show tooltipText as tooltip while it is disabled and hovered.
+	 * An existing DisabledTooltip of the node is uninstalled first.
+	 * @param node The node to disable
+	 * @param disabledProperty Whether the node shall be disabled
+	 * @param tooltipText The text explaining why the node is disabled
+	 * @return The installed DisabledTooltip
+	 */
+	public static DisabledTooltip install(Node node, ObservableValue<Boolean> disabledProperty, ObservableValue<String> tooltipText) {
+		DisabledTooltip existing = get(node);
+		if (existing != null) {
+			existing.uninstall();
+		}
+		DisabledTooltip disabledTooltip = new DisabledTooltip(node, disabledProperty, tooltipText);
+		node.getProperties().put(KEY, disabledTooltip);
+		node.disableProperty().bind(disabledProperty);
+		node.sceneProperty().addListener(disabledTooltip.sceneListener);
+		disabledTooltip.attachTo(node.getScene());
+		return disabledTooltip;
+	}
+
+	/** Get the DisabledTooltip installed on node, if any. */
+	public static DisabledTooltip get(Node node) {
+		return node.hasProperties() ? (DisabledTooltip) node.getProperties().get(KEY) : null;
+	}
+
+	/** Remove this DisabledTooltip from its node. The node's disable property is unbound (but keeps its current value). */
+	public void uninstall() {
+		if (node.getProperties().get(KEY) != this) {
+			return;
+		}
+		node.getProperties().remove(KEY);
+		node.disableProperty().unbind();
+		node.sceneProperty().removeListener(sceneListener);
+		attachTo(null);
+	}
+
+	public Node getNode() {
+		return node;
+	}
+
+	public String getText() {
+		return tooltipText.getValue();
+	}
+
+	/** Get the tooltip shared by all DisabledTooltips in the scene, or null if there are none. */
+	static Tooltip getSharedTooltip(Scene scene) {
+		SceneTooltip sceneTooltip = (SceneTooltip) scene.getProperties().get(KEY);
+		return sceneTooltip == null ? null : sceneTooltip.tooltip;
+	}
+
+	private boolean isActive() {
+		return Boolean.TRUE.equals(disabledProperty.getValue());
+	}
+
+	/** Check whether the mouse is over the visible part of the node, i.e. inside its bounds clipped by the enclosing ScrollPanes and not covered by other nodes. */
+	private boolean isHit(MouseEvent event) {
+		if (!visibility.isVisible()) {
+			return false;
+		}
+		double sceneX = event.getSceneX();
+		double sceneY = event.getSceneY();
+		if (!node.localToScene(node.getLayoutBounds()).contains(sceneX, sceneY)) {
+			return false;
+		}
+		for (ScrollPane scrollPane : visibility.getScrollPanes()) {
+			if (!scrollPane.localToScene(scrollPane.getLayoutBounds()).contains(sceneX, sceneY)) {
+				return false;
+			}
+		}
+		return isPickedOrBehind(event.getPickResult() == null ? null : event.getPickResult().getIntersectedNode());
+	}
+
+	/** The picked node must be part of the node or behind it (i.e. one of its ancestors), otherwise another node covers it. */
+	private boolean isPickedOrBehind(Node picked) {
+		if (picked == null) {
+			return true;
+		}
+		for (Node current = picked; current != null; current = current.getParent()) {
+			if (current == node) {
+				return true;
+			}
+		}
+		for (Node ancestor = node.getParent(); ancestor != null; ancestor = ancestor.getParent()) {
+			if (ancestor == picked) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private void attachTo(Scene scene) {
+		if (sceneTooltip != null) {
+			sceneTooltip.release(this);
+			sceneTooltip = null;
+			visibility.dispose();
+			visibility = null;
+		}
+		if (scene != null) {
+			visibility = new TreeVisibility(node, this::visibilityChanged);
+			sceneTooltip = SceneTooltip.acquire(scene, this);
+		}
+	}
+
+	private void visibilityChanged() {
+		if (!visibility.isVisible() && sceneTooltip != null) {
+			sceneTooltip.unhover(this);
+		}
+	}
+
+	/** The event filters and the tooltip shared by all DisabledTooltips of a scene. Registered with the scene as long as it is used by at least one of them. */
+	private static class SceneTooltip {
+
+		private final Scene scene;
+		private final Tooltip tooltip = new Tooltip();
+		private final Set<DisabledTooltip> users = new LinkedHashSet<>();
+		private DisabledTooltip hovered;
+		private final EventHandler<MouseEvent> moveFilter = this::updateHover;
+		private final EventHandler<MouseEvent> exitFilter = event -> setHovered(null, event);
+		private final InvalidationListener enabledListener = observable -> {
+			if (hovered != null && !hovered.isActive()) {
+				setHovered(null, null);
+			}
+		};
+
+		private SceneTooltip(Scene scene) {
+			this.scene = scene;
+			tooltip.getStyleClass().add("TooltipWrapper");
+		}
+
+		static SceneTooltip acquire(Scene scene, DisabledTooltip disabledTooltip) {
+			SceneTooltip sceneTooltip = (SceneTooltip) scene.getProperties().get(KEY);
+			if (sceneTooltip == null) {
+				sceneTooltip = new SceneTooltip(scene);
+				scene.getProperties().put(KEY, sceneTooltip);
+				scene.addEventFilter(MouseEvent.MOUSE_MOVED, sceneTooltip.moveFilter);
+				scene.addEventFilter(MouseEvent.MOUSE_EXITED, sceneTooltip.exitFilter);
+			}
+			sceneTooltip.users.add(disabledTooltip);
+			return sceneTooltip;
+		}
+
+		void release(DisabledTooltip disabledTooltip) {
+			unhover(disabledTooltip);
+			users.remove(disabledTooltip);
+			if (users.isEmpty()) {
+				scene.removeEventFilter(MouseEvent.MOUSE_MOVED, moveFilter);
+				scene.removeEventFilter(MouseEvent.MOUSE_EXITED, exitFilter);
+				scene.getProperties().remove(KEY);
+			}
+		}
+
+		void unhover(DisabledTooltip disabledTooltip) {
+			if (hovered == disabledTooltip) {
+				setHovered(null, null);
+			}
+		}
+
+		/** Find the hovered node by hit testing all registered nodes, as disabled nodes are not picked (the node behind them is). */
+		private void updateHover(MouseEvent event) {
+			DisabledTooltip hit = null;
+			for (DisabledTooltip candidate : users) {
+				if (candidate.isActive() && candidate.isHit(event)) {
+					hit = candidate;
+				}
+			}
+			setHovered(hit, event);
+		}
+
+		private void setHovered(DisabledTooltip disabledTooltip, MouseEvent event) {
+			if (disabledTooltip == hovered) {
+				return;
+			}
+			if (hovered != null) {
+				hovered.disabledProperty.removeListener(enabledListener);
+				tooltip.textProperty().unbind();
+				tooltip.hide();
+			}
+			hovered = disabledTooltip;
+			if (disabledTooltip != null) {
+				disabledTooltip.disabledProperty.addListener(enabledListener);
+				tooltip.textProperty().bind(disabledTooltip.tooltipText);
+				tooltip.show(disabledTooltip.node, event.getScreenX() + TOOLTIP_OFFSET, event.getScreenY() + TOOLTIP_OFFSET);
+			}
+		}
+	}
+}
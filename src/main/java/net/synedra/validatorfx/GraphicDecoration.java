@@ -1,13 +1,14 @@
 package net.synedra.validatorfx;
 
-import javafx.application.Platform;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
 import javafx.beans.value.ChangeListener;
-import javafx.beans.value.WeakChangeListener;
 import javafx.geometry.Bounds;
 import javafx.geometry.Pos;
 import javafx.scene.Node;
-import javafx.scene.Parent;
 import javafx.scene.Scene;
+import javafx.scene.control.ScrollPane;
 import javafx.scene.transform.Transform;
 
 /** GraphicDecoration provides decoration of nodes by overlaying them with another node.
@@ -16,16 +17,19 @@ import javafx.scene.transform.Transform;
 public class GraphicDecoration implements Decoration {
 
 	private Node decoratedNode;
-    private final Node decorationNode;
+    private Node decorationNode;
+    private final Supplier<Node> nodeSupplier;
+    private final Consumer<Node> nodeRecycler;
+    private final Consumer<Node> nodeHandOut;
+    private boolean nodeHandedOut;
     private final Pos pos;
     private final double xOffset;
     private final double yOffset;
 	
-    private final ChangeListener<Boolean> layoutListener;
-    private final ChangeListener<Boolean> layoutInnerListener;
     private final ChangeListener<Transform> transformListener;
     
-    private ChangeListener<Scene> sceneChangedListener;
+    private TreeVisibility targetVisibility;
+    private final ChangeListener<Scene> sceneListener;
     private GraphicDecorationStackPane stack;
     
 	/** Create GraphicDecoration that will be overlayed in the top-left corner
@@ -50,20 +54,68 @@ public class GraphicDecoration implements Decoration {
 	 * @param yOffset Vertical offset of overlay (with respect to position)
 	 */
 	public GraphicDecoration(Node decorationNode, Pos position, double xOffset, double yOffset) {
-		this.decorationNode = decorationNode;
-		this.decorationNode.setManaged(false);
+		this(() -> decorationNode, null, null, position, xOffset, yOffset);
+	}
+	
+	/** Create GraphicDecoration without a decoration node, for subclasses that render the overlay themselves. */
+	GraphicDecoration(Pos position, double xOffset, double yOffset) {
+		this(null, null, null, position, xOffset, yOffset);
+	}
+	
+	/** Create GraphicDecoration whose decoration node is borrowed from a pool.
+	 * The node is taken from nodeSupplier on creation (and on adding the decoration again after it has been removed) and handed to nodeRecycler when the decoration is removed,
+	 * unless it has been handed out by {@link #getDecorationNode()} (and thus may have been customized).
+	 * @param nodeSupplier Provides the node to overlay over the decorated node
+	 * @param nodeRecycler Takes back the node once it is no longer used, may be null
+	 * @param nodeHandOut Called when the node is handed out by {@link #getDecorationNode()} for the first time, e.g. to complete lazily initialized parts of it; may be null
+	 * @param position The location of the overlay 
+	 * @param xOffset Horizontal offset of overlay (with respect to position)
+	 * @param yOffset Vertical offset of overlay (with respect to position)
+	 */
+	GraphicDecoration(Supplier<Node> nodeSupplier, Consumer<Node> nodeRecycler, Consumer<Node> nodeHandOut, Pos position, double xOffset, double yOffset) {
+		this.nodeSupplier = nodeSupplier;
+		this.nodeRecycler = nodeRecycler;
+		this.nodeHandOut = nodeHandOut;
+		acquireDecorationNode();
 		this.pos = position;
 		this.xOffset = xOffset;
 		this.yOffset = yOffset;
-		layoutInnerListener = (observable, oldValue, newValue) -> layoutGraphic();
-		layoutListener = new WeakChangeListener<>(layoutInnerListener);
-		transformListener = (observable, oldValue, newValue) -> layoutGraphic();
+		transformListener = (observable, oldValue, newValue) -> markDirty();
+		sceneListener = (observable, oldValue, newValue) -> attachTo(newValue);
 	}
 
-	/** Get node used to overlay the decorated node. */
+	/** Get node used to overlay the decorated node. 
+	 * A node obtained this way is owned by this decoration from now on, i.e. it is no longer recycled for other decorations.
+	 * @return The node or null if the decoration has been removed and its node has been recycled
+	 */
 	public Node getDecorationNode() {
+		if (decorationNode != null && !nodeHandedOut) {
+			nodeHandedOut = true;
+			if (nodeHandOut != null) {
+				nodeHandOut.accept(decorationNode);
+			}
+		}
 		return decorationNode;
 	}
+	
+	/** Get node used to overlay the decorated node without keeping it from being recycled. */
+	Node peekDecorationNode() {
+		return decorationNode;
+	}
+	
+	private void acquireDecorationNode() {
+		if (nodeSupplier != null) {
+			decorationNode = nodeSupplier.get();
+			decorationNode.setManaged(false);
+		}
+	}
+	
+	private void recycleDecorationNode() {
+		if (nodeRecycler != null && decorationNode != null && !nodeHandedOut) {
+			nodeRecycler.accept(decorationNode);
+			decorationNode = null;
+		}
+	}
 
 	/** Manually trigger an update for decorations in scene.
 	 *  
@@ -74,88 +126,115 @@ public class GraphicDecoration implements Decoration {
 	public static void updateDecorations(Node node) {
 		GraphicDecorationStackPane decorationPane = findDecorationPane(node);
 		if (decorationPane != null) {
-			decorationPane.requestLayout(); // will trigger the layoutListener for all graphic decorations in scene
+			decorationPane.updateDecorations(); // will lay out all graphic decorations in scene
 		}
 	}
 	
 	@Override
 	public void add(Node target) {
 		decoratedNode = target;		
-		withStack(() -> {
-			if (decoratedNode != null) {	// #10: could have been removed again already ...
-				setListener();
-				layoutGraphic();
-			}
-		}, target);
+		if (decorationNode == null) {
+			acquireDecorationNode();
+		}
+		target.sceneProperty().removeListener(sceneListener);
+		target.sceneProperty().addListener(sceneListener);	// stays attached, so we follow the target into (other) scenes
+		attachTo(target.getScene());
 	}
 
 
 	@Override
 	public void remove(Node target) {
 		if (stack != null) {
-			stack.getChildren().remove(decorationNode);
-			stack.needsLayoutProperty().removeListener(layoutListener);
+			detachOverlay();
+			stack.unregister(this);
 		}
 		this.decoratedNode = null;
+		target.sceneProperty().removeListener(sceneListener);
 		target.localToSceneTransformProperty().removeListener(transformListener);		
+		disposeTargetVisibility();
+		recycleDecorationNode();
 	}
 	
-	private void withStack(Runnable code, Node target) {
-		stack = findDecorationPane(target);
-		if (stack == null) {
-			if (target.getScene() == null) {
-				sceneChangedListener = (observable, oldValue, newValue) -> {
-					if (oldValue == null && newValue != null) {
-						target.sceneProperty().removeListener(sceneChangedListener);
-						stack = findDecorationPane(target);
-						if (stack == null) {
-							setupStack(target);
-						}
-						code.run();
-					}
-				};
-				target.sceneProperty().addListener(sceneChangedListener);
-			} else {
-				setupStack(target);
-				code.run();
+	private void attachTo(Scene scene) {
+		if (decoratedNode == null) {
+			return;
+		}
+		if (scene == null) {
+			if (stack != null) {
+				hideOverlay();	// until the target is added to a scene again
 			}
-		} else {
-			code.run();
+			return;
+		}
+		GraphicDecorationStackPane newStack = findDecorationPane(decoratedNode);
+		if (newStack == null) {
+			newStack = GraphicDecorationStackPane.install(scene);
 		}
+		if (newStack != stack && stack != null) {
+			detachOverlay();
+			stack.unregister(this);
+		}
+		stack = newStack;
+		setListener();
+		layoutGraphic();
 	}
 
 	private static GraphicDecorationStackPane findDecorationPane(Node node) {
-		Node parent = node.getParent();
-		while (parent != null && !(parent instanceof GraphicDecorationStackPane)) {
-			parent = parent.getParent();			
+		Scene scene = node.getScene();
+		GraphicDecorationStackPane pane = scene == null ? null : GraphicDecorationStackPane.lookup(scene);
+		if (pane == null) {
+			Node parent = node.getParent();
+			while (parent != null && !(parent instanceof GraphicDecorationStackPane)) {
+				parent = parent.getParent();			
+			}
+			pane = (GraphicDecorationStackPane) parent;
+			if (pane != null && scene != null && pane == scene.getRoot()) {
+				pane.remember();
+			}
 		}
-		return (GraphicDecorationStackPane) parent;
-	}
-	
-	private void setupStack(Node target) {
-		stack = new GraphicDecorationStackPane();
-		Parent oldRoot = target.getScene().getRoot();
-		target.getScene().setRoot(stack);
-		stack.getChildren().add(oldRoot);		
+		return pane;
 	}
 	
 	private void setListener() {
-		stack.needsLayoutProperty().removeListener(layoutListener);
-		stack.needsLayoutProperty().addListener(layoutListener);		
+		stack.register(this);
 		decoratedNode.localToSceneTransformProperty().removeListener(transformListener);
 		decoratedNode.localToSceneTransformProperty().addListener(transformListener);
+		disposeTargetVisibility();
+		targetVisibility = new TreeVisibility(decoratedNode, this::markDirty);
 	}
 	
+	private void disposeTargetVisibility() {
+		if (targetVisibility != null) {
+			targetVisibility.dispose();
+			targetVisibility = null;
+		}
+	}
 	
-    private void layoutGraphic() {
-        // Because we made decorationNode unmanaged, we are responsible for sizing it:
-        decorationNode.autosize();
-        // Now get decorationNode's layout Bounds and use for its position computations: 
-        final Bounds decorationNodeLayoutBounds = decorationNode.getLayoutBounds();
+	GraphicDecorationStackPane getStack() {
+		return stack;
+	}
+	
+	private void markDirty() {
+		if (stack != null) {
+			stack.markDirty(this);	// the stack repositions all dirty decorations once per pulse
+		}
+	}
+	
+	
+    void layoutGraphic() {
+    	if (decoratedNode == null || !hasOverlay() || stack == null) {
+    		return;
+    	}
+        Bounds targetBounds = decoratedNode.getLayoutBounds();
+        Bounds sceneBounds = decoratedNode.localToScene(targetBounds);
+        if (!inViewport(sceneBounds)) {
+        	hideOverlay();	// no need to position decorations nobody can see
+        	return;
+        }
+        
+        final Bounds decorationNodeLayoutBounds = measureOverlay();
         final double decorationNodeWidth = decorationNodeLayoutBounds.getWidth();
         final double decorationNodeHeight = decorationNodeLayoutBounds.getHeight();
 
-        Bounds targetBounds = decoratedNode.getLayoutBounds();
         double x = targetBounds.getMinX();
         double y = targetBounds.getMinY();
 
@@ -192,38 +271,70 @@ public class GraphicDecoration implements Decoration {
         		y += targetHeight - decorationNodeHeight / 2.0;
         		break;
         	case BASELINE: 
-        		y += decoratedNode.getBaselineOffset() - decorationNode.getBaselineOffset() - decorationNodeHeight / 2.0;
+        		y += decoratedNode.getBaselineOffset() - overlayBaselineOffset() - decorationNodeHeight / 2.0;
         		break;
         }
         
-        Bounds sceneBounds = decoratedNode.localToScene(targetBounds);
         Bounds stackBounds = stack.sceneToLocal(sceneBounds);
-        decorationNode.setLayoutX(Math.round(x + xOffset + stackBounds.getMinX()));
-        decorationNode.setLayoutY(Math.round(y + yOffset + stackBounds.getMinY()));
-        addOrRemoveDecorationNodeToStack();
+        placeOverlay(Math.round(x + xOffset + stackBounds.getMinX()), Math.round(y + yOffset + stackBounds.getMinY()));
+        if (decoratedNode.getScene() != null && targetVisibility.isVisible()) {
+        	showOverlay();
+        } else {
+        	hideOverlay();
+        }
     }
     
-    private void addOrRemoveDecorationNodeToStack() {
-    	if (stack != null) {
-    		boolean shouldBeThere = decoratedNode.getScene() != null && targetVisible();
-    		boolean isThere = stack.getChildren().contains(decorationNode);
-    		if (shouldBeThere != isThere) {
-		    	if (shouldBeThere) {
-					stack.getChildren().add(decorationNode);
-		    	} else {
-		    		Platform.runLater(() -> stack.getChildren().remove(decorationNode));
-		    	}
+    // The following methods deal with what is actually overlayed; subclasses may render decorations differently.
+    
+    boolean hasOverlay() {
+    	return decorationNode != null;
+    }
+    
+    /** @return The size of the overlay (used for positioning it) */
+    Bounds measureOverlay() {
+        // Because we made decorationNode unmanaged, we are responsible for sizing it:
+        decorationNode.autosize();
+        return decorationNode.getLayoutBounds();
+    }
+    
+    double overlayBaselineOffset() {
+    	return decorationNode.getBaselineOffset();
+    }
+    
+    /** Move the overlay to the given position (in the stack's coordinates). */
+    void placeOverlay(double x, double y) {
+        decorationNode.setLayoutX(x);
+        decorationNode.setLayoutY(y);
+    }
+    
+    void showOverlay() {
+    	stack.show(decorationNode);
+    }
+    
+    void hideOverlay() {
+    	stack.hide(decorationNode);
+    }
+    
+    void detachOverlay() {
+    	stack.detach(decorationNode);
+    }
+    
+    /** Check whether the target is within the scene and within the viewports of all ScrollPanes it is contained in. 
+     * The bounds of a ScrollPane (including its scroll bars) are used as an approximation of its viewport.
+     */
+    private boolean inViewport(Bounds sceneBounds) {
+    	Scene scene = decoratedNode.getScene();
+    	if (scene == null) {
+    		return true;	// will be removed from the stack anyway
+    	}
+    	if (!sceneBounds.intersects(0, 0, scene.getWidth(), scene.getHeight())) {
+    		return false;
+    	}
+    	for (ScrollPane scrollPane : targetVisibility.getScrollPanes()) {
+    		if (!sceneBounds.intersects(scrollPane.localToScene(scrollPane.getLayoutBounds()))) {
+    			return false;
     		}
     	}
+    	return true;
     }
-
-	private boolean targetVisible() {
-		Node node = decoratedNode;
-		boolean visible = true;
-		while (visible && node != null) {
-			visible = node.isVisible();
-			node = node.getParent();
-		}
-		return visible;
-	}
 }
@@ -1,5 +1,23 @@
 package net.synedra.validatorfx;
 
+import java.lang.ref.WeakReference;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+import javafx.application.Platform;
+import javafx.beans.InvalidationListener;
+import javafx.beans.value.ChangeListener;
+import javafx.collections.ListChangeListener;
+import javafx.scene.Node;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+import javafx.scene.layout.Pane;
+import javafx.scene.layout.Region;
 import javafx.scene.layout.StackPane;
 
 /** GraphicDecorationStackPane serves as stack for overlaying decoration nodes in GraphicDecoration.
@@ -7,9 +25,311 @@ import javafx.scene.layout.StackPane;
  */
 public class GraphicDecorationStackPane extends StackPane {
 	
+	/** Determines how the overlay for graphic decorations is installed into a scene. */
+	public enum OverlayMode {
+		/** The scene's root is replaced by the overlay, which in turn contains the former root. */
+		WRAP_ROOT,
+		/** The overlay is added as an unmanaged child on top of the scene's root, leaving the root in place. 
+		 * The overlay is kept the root's last child: it is moved to the front if children are added later on and added again if it is removed from the root 
+		 * (e.g. by clearing the root's children), in both cases before the next layout pass.
+		 * This requires the root to be a {@link Pane}; for other roots {@link #WRAP_ROOT} is used.
+		 */
+		CHILD_OF_ROOT
+	}
+	
+	private static final Map<Scene, WeakReference<GraphicDecorationStackPane>> panes = new WeakHashMap<>();
+	private static OverlayMode overlayMode = OverlayMode.WRAP_ROOT;
+	
+	private final boolean childOfRoot;
+	private Pane hostRoot;
+	private boolean restackRequested;
+	private final ListChangeListener<Node> hostChildrenListener = change -> requestRestack();
+	private final Runnable restackListener = this::restack;
+	private Scene rememberedScene;
+	private final InvalidationListener rootListener = observable -> forget();
+	private final Set<GraphicDecoration> decorations = Collections.newSetFromMap(new WeakHashMap<>());
+	private final Set<Node> pendingAdditions = new LinkedHashSet<>();
+	private final Set<Node> pendingRemovals = new HashSet<>();
+	private boolean flushRequested;
+	private DecorationCanvas canvas;
+	private final Set<GraphicDecoration> dirtyDecorations = new HashSet<>();
+	private boolean allDirty;
+	private final Runnable pulseListener = this::layoutDirtyDecorations;
+	private final Runnable flushListener = this::flushChildren;
+	private final ChangeListener<Boolean> layoutListener = (observable, oldValue, newValue) -> {
+		if (!newValue) {	// the scene graph below us has been laid out, so all decorations may have to move
+			laidOut();
+		}
+	};
+	private final ChangeListener<Parent> parentListener = (observable, oldParent, newParent) -> {
+		if (oldParent != null) {
+			oldParent.needsLayoutProperty().removeListener(layoutListener);
+		}
+		if (newParent != null) {
+			newParent.needsLayoutProperty().addListener(layoutListener);
+		}
+	};
+	
 	public GraphicDecorationStackPane() {
+		this(false);
+	}
+	
+	private GraphicDecorationStackPane(boolean childOfRoot) {
 		super();
+		this.childOfRoot = childOfRoot;
 		setId("graphic validator overlay stack");
-		setStyle("-fx-background-color: rgba(0, 0, 0, 0);");
-	}	
+		if (childOfRoot) {
+			// we don't contain the scene's content, so let all mouse events we don't need pass through and observe the root's layout instead of ours
+			setManaged(false);
+			setPickOnBounds(false);
+			parentProperty().addListener(parentListener);
+		} else {
+			setStyle("-fx-background-color: rgba(0, 0, 0, 0);");
+			needsLayoutProperty().addListener(layoutListener);
+		}
+		sceneProperty().addListener((observable, oldScene, newScene) -> {
+			if (oldScene != null) {
+				oldScene.removePostLayoutPulseListener(pulseListener);
+				oldScene.removePreLayoutPulseListener(flushListener);
+			}
+			if (newScene != null) {
+				newScene.addPostLayoutPulseListener(pulseListener);
+				newScene.addPreLayoutPulseListener(flushListener);
+				if (flushRequested) {
+					Platform.requestNextPulse();
+				}
+			}
+		});
+	}
+	
+	/** Set how overlays are installed into scenes from now on (overlays already installed are not affected). 
+	 * @param mode The mode to use, {@link OverlayMode#WRAP_ROOT} by default
+	 */
+	public static void setOverlayMode(OverlayMode mode) {
+		overlayMode = mode;
+	}
+	
+	public static OverlayMode getOverlayMode() {
+		return overlayMode;
+	}
+	
+	/** Get the overlay of the given scene, installing it according to the current {@link OverlayMode} if necessary.
+	 * The overlay is installed automatically when the first graphic decoration is shown in a scene. 
+	 * As installing it may cause the whole scene to be restyled and laid out again, you may want to call this method as soon as the scene has been set up instead, 
+	 * so this does not happen on the first validation.
+	 * @param scene The scene to install the overlay into
+	 * @return The overlay
+	 */
+	public static GraphicDecorationStackPane install(Scene scene) {
+		GraphicDecorationStackPane pane = lookup(scene);
+		if (pane != null) {
+			return pane;
+		}
+		Parent root = scene.getRoot();
+		if (root instanceof GraphicDecorationStackPane) {
+			pane = (GraphicDecorationStackPane) root;
+		} else if (overlayMode == OverlayMode.CHILD_OF_ROOT && root instanceof Pane) {
+			pane = new GraphicDecorationStackPane(true);
+			pane.hostRoot = (Pane) root;
+			pane.hostRoot.getChildren().add(pane);
+		} else {
+			pane = new GraphicDecorationStackPane();
+			scene.setRoot(pane);
+			pane.getChildren().add(root);
+		}
+		pane.remember();
+		return pane;
+	}
+	
+	/** Find the pane that has been remembered as overlay for the given scene. 
+	 * @return The pane or null if none is known (it may still exist further down the scene graph)
+	 */
+	static GraphicDecorationStackPane lookup(Scene scene) {
+		WeakReference<GraphicDecorationStackPane> ref = panes.get(scene);
+		GraphicDecorationStackPane pane = ref == null ? null : ref.get();
+		if (pane != null && !pane.belongsTo(scene)) {
+			pane.forget();
+			return null;
+		}
+		return pane;
+	}
+	
+	/** Remember this pane as overlay of its scene until the scene's root changes. */
+	void remember() {
+		Scene scene = getScene();
+		if (scene == null || scene == rememberedScene) {
+			return;
+		}
+		forget();
+		rememberedScene = scene;
+		panes.put(scene, new WeakReference<>(this));
+		scene.rootProperty().addListener(rootListener);
+		if (hostRoot != null) {
+			hostRoot.getChildren().addListener(hostChildrenListener);
+			scene.addPreLayoutPulseListener(restackListener);
+		}
+	}
+	
+	/** Whether this pane is the overlay of the given scene (or will be again, once it has been restacked). */
+	private boolean belongsTo(Scene scene) {
+		if (getScene() == scene) {
+			return true;
+		}
+		if (hostRoot != null && getParent() == null && scene.getRoot() == hostRoot) {
+			requestRestack();	// removed from the root, but will be added again
+			return true;
+		}
+		return false;
+	}
+	
+	private void forget() {
+		if (rememberedScene != null) {
+			rememberedScene.rootProperty().removeListener(rootListener);
+			if (hostRoot != null) {
+				hostRoot.getChildren().removeListener(hostChildrenListener);
+				rememberedScene.removePreLayoutPulseListener(restackListener);
+				restackRequested = false;
+			}
+			WeakReference<GraphicDecorationStackPane> ref = panes.get(rememberedScene);
+			if (ref != null && ref.get() == this) {
+				panes.remove(rememberedScene);
+			}
+			rememberedScene = null;
+		}
+	}
+	
+	/** Schedule bringing this pane back on top of the root's children, if children have been added above it or it has been removed. 
+	 * This can't be done right away, as the root's children must not be modified while their change is being reported.
+	 */
+	private void requestRestack() {
+		List<Node> children = hostRoot.getChildren();
+		if (!restackRequested && (children.isEmpty() || children.get(children.size() - 1) != this)) {
+			restackRequested = true;
+			Platform.requestNextPulse();
+		}
+	}
+	
+	private void restack() {
+		if (!restackRequested) {
+			return;
+		}
+		restackRequested = false;
+		if (getParent() == hostRoot) {
+			toFront();
+		} else if (getParent() == null) {
+			hostRoot.getChildren().add(this);
+		}
+	}
+	
+	/** Register a decoration to be laid out whenever this stack has been laid out. Decorations are only weakly referenced (except while dirty). */
+	void register(GraphicDecoration decoration) {
+		decorations.add(decoration);
+	}
+	
+	void unregister(GraphicDecoration decoration) {
+		decorations.remove(decoration);
+		dirtyDecorations.remove(decoration);
+	}
+	
+	private void laidOut() {
+		if (childOfRoot && getParent() instanceof Region) {
+			Region root = (Region) getParent();
+			resize(root.getWidth(), root.getHeight());
+		}
+		updateDecorations();
+	}
+	
+	/** Reposition all decorations with the next pulse. */
+	void updateDecorations() {
+		allDirty = true;
+		Platform.requestNextPulse();	// in case we have been laid out outside of a pulse
+	}
+	
+	/** Mark a decoration as in need of being repositioned. 
+	 * All dirty decorations are repositioned once per pulse, after the scene has been laid out. 
+	 */
+	void markDirty(GraphicDecoration decoration) {
+		if (!allDirty && dirtyDecorations.add(decoration)) {
+			Platform.requestNextPulse();
+		}
+	}
+	
+	private void layoutDirtyDecorations() {
+		if (allDirty) {
+			allDirty = false;
+			dirtyDecorations.clear();
+			layoutDecorations(decorations.toArray(new GraphicDecoration[0]));
+		} else if (!dirtyDecorations.isEmpty()) {
+			GraphicDecoration[] dirty = dirtyDecorations.toArray(new GraphicDecoration[0]);
+			dirtyDecorations.clear();
+			layoutDecorations(dirty);
+		}
+		if (canvas != null) {
+			canvas.paintIfDirty();
+		}
+	}
+	
+	/** Position the given decorations in a single pass. */
+	private void layoutDecorations(GraphicDecoration[] toLayout) {
+		for (GraphicDecoration decoration : toLayout) {
+			decoration.layoutGraphic();
+		}
+	}
+	
+	/** Get the canvas {@link CanvasDecoration}s are painted on, creating it on first use. */
+	DecorationCanvas getCanvas() {
+		if (canvas == null) {
+			canvas = new DecorationCanvas(this);
+			getChildren().add(canvas);
+		}
+		return canvas;
+	}
+	
+	/** Make sure the given decoration node is shown on this stack. 
+	 * Changes of the children list are collected and performed at the beginning of the next pulse, with a single addition and a single removal for all nodes.
+	 */
+	void show(Node decorationNode) {
+		pendingRemovals.remove(decorationNode);
+		if (decorationNode.getParent() != this && pendingAdditions.add(decorationNode)) {
+			requestFlush();
+		}
+	}
+	
+	/** Make sure the given decoration node is no longer shown on this stack, with the next pulse (see {@link #show(Node)}). */
+	void hide(Node decorationNode) {
+		pendingAdditions.remove(decorationNode);
+		if (decorationNode.getParent() == this && pendingRemovals.add(decorationNode)) {
+			requestFlush();
+		}
+	}
+	
+	/** Remove the given decoration node as it is no longer used by its decoration. 
+	 * Like {@link #hide(Node)} this is deferred to the next pulse; the node may be reused and shown again (on this or another stack) meanwhile. 
+	 */
+	void detach(Node decorationNode) {
+		hide(decorationNode);
+	}
+	
+	private void requestFlush() {
+		if (!flushRequested) {
+			flushRequested = true;
+			Platform.requestNextPulse();
+		}
+	}
+	
+	private void flushChildren() {
+		if (!flushRequested) {
+			return;
+		}
+		flushRequested = false;
+		pendingRemovals.removeIf(node -> node.getParent() != this);	// may have been moved elsewhere meanwhile
+		if (!pendingRemovals.isEmpty()) {
+			getChildren().removeAll(pendingRemovals);
+			pendingRemovals.clear();
+		}
+		if (!pendingAdditions.isEmpty()) {
+			getChildren().addAll(pendingAdditions);
+			pendingAdditions.clear();
+		}
+	}
 }
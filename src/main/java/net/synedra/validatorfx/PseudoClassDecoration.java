@@ -0,0 +1,62 @@
+package net.synedra.validatorfx;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import javafx.css.PseudoClass;
+import javafx.scene.Node;
+
+/** PseudoClassDecoration provides decoration of nodes by switching pseudo class states on / off.
+ * Toggling a pseudo class is much cheaper than editing the style class list of a node, as it does not trigger a complete re-matching of CSS rules.
+ * If several decorations apply the same pseudo class to a node, the state is only switched off once all of them have been removed.
+ * @author r.lichtenberger@synedra.com
+ */
+public class PseudoClassDecoration implements Decoration {
+
+	private static final String USAGE_KEY = PseudoClassDecoration.class.getName() + ".usage";
+
+	private final PseudoClass[] pseudoClasses;
+
+	/** Create new PseudoClassDecoration
+	 * @param pseudoClasses The pseudo classes to switch on for the target node, if check fails
+	 * @throws IllegalArgumentException if pseudoClasses is null or empty.
+	 */
+	public PseudoClassDecoration(PseudoClass... pseudoClasses) {
+		if (pseudoClasses == null || pseudoClasses.length == 0) {
+			throw new IllegalArgumentException("At least one pseudo class is required");
+		}
+		this.pseudoClasses = pseudoClasses.clone();
+	}
+
+	@Override
+	public void add(Node targetNode) {
+		Map<PseudoClass, Integer> usage = getUsage(targetNode);
+		for (PseudoClass pseudoClass : pseudoClasses) {
+			if (usage.merge(pseudoClass, 1, Integer::sum) == 1) {
+				DecorationBatch.setPseudoClassState(targetNode, pseudoClass, true);
+			}
+		}
+	}
+
+	@Override
+	public void remove(Node targetNode) {
+		Map<PseudoClass, Integer> usage = getUsage(targetNode);
+		for (PseudoClass pseudoClass : pseudoClasses) {
+			Integer count = usage.get(pseudoClass);
+			if (count == null) {
+				continue;
+			}
+			if (count == 1) {
+				usage.remove(pseudoClass);
+				DecorationBatch.setPseudoClassState(targetNode, pseudoClass, false);
+			} else {
+				usage.put(pseudoClass, count - 1);
+			}
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Map<PseudoClass, Integer> getUsage(Node targetNode) {
+		return (Map<PseudoClass, Integer>) targetNode.getProperties().computeIfAbsent(USAGE_KEY, k -> new HashMap<>());
+	}
+}
@@ -2,7 +2,6 @@ package net.synedra.validatorfx;
 
 import java.util.Arrays;
 import java.util.HashSet;
-import java.util.List;
 import java.util.Set;
 
 import javafx.scene.Node;
@@ -27,14 +26,11 @@ public class StyleClassDecoration implements Decoration {
 
     @Override 
     public void add(Node targetNode) {
-        List<String> styleClassList = targetNode.getStyleClass();
-        Set<String> toAdd = new HashSet<>(styleClasses);
-        toAdd.removeAll(styleClassList);	// don't add a style class that is already added.
-        styleClassList.addAll(toAdd);
+        DecorationBatch.addStyleClasses(targetNode, styleClasses);
     }
     
     @Override 
     public void remove(Node targetNode) {
-        targetNode.getStyleClass().removeAll(styleClasses);
+        DecorationBatch.removeStyleClasses(targetNode, styleClasses);
     }
 }
@@ -0,0 +1,94 @@
+package net.synedra.validatorfx;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import javafx.beans.value.ChangeListener;
+import javafx.beans.value.WeakChangeListener;
+import javafx.scene.Node;
+import javafx.scene.Parent;
+import javafx.scene.control.ScrollPane;
+
+/** TreeVisibility tracks whether a node and all of its ancestors are visible.
+ * Listeners on the ancestor chain keep the state up to date, so asking for it does not require walking the scene graph.
+ * As a by-product, the ScrollPanes the node is contained in are known as well.
+ * @author r.lichtenberger@synedra.com
+ */
+class TreeVisibility {
+
+	private final Node node;
+	private final Runnable onChange;
+	private final List<Node> chain = new ArrayList<>();
+	private final List<ScrollPane> scrollPanes = new ArrayList<>(1);
+	private int invisibleCount;
+	
+	private final ChangeListener<Boolean> visibleListener = (observable, oldValue, newValue) -> {
+		boolean wasVisible = isVisible();
+		invisibleCount += newValue ? -1 : 1;
+		fireIfChanged(wasVisible);
+	};
+	private final ChangeListener<Parent> parentListener = (observable, oldValue, newValue) -> {
+		boolean wasVisible = isVisible();
+		attach();	// the chain above the reparented node has changed
+		fireIfChanged(wasVisible);
+	};
+	private final ChangeListener<Boolean> weakVisibleListener = new WeakChangeListener<>(visibleListener);
+	private final ChangeListener<Parent> weakParentListener = new WeakChangeListener<>(parentListener);
+	
+	/** Start tracking.
+	 * @param node The node whose tree visibility is to be tracked
+	 * @param onChange Called whenever the tree visibility flips
+	 */
+	TreeVisibility(Node node, Runnable onChange) {
+		this.node = node;
+		this.onChange = onChange;
+		attach();
+	}
+	
+	/** @return true if the node and all of its ancestors are visible */
+	boolean isVisible() {
+		return invisibleCount == 0;
+	}
+	
+	/** @return The ScrollPanes containing the node, innermost first */
+	List<ScrollPane> getScrollPanes() {
+		return Collections.unmodifiableList(scrollPanes);
+	}
+	
+	/** Stop tracking, removing all listeners from the ancestor chain. */
+	void dispose() {
+		detach();
+	}
+	
+	private void attach() {
+		detach();
+		for (Node current = node; current != null; current = current.getParent()) {
+			chain.add(current);
+			current.visibleProperty().addListener(weakVisibleListener);
+			current.parentProperty().addListener(weakParentListener);
+			if (!current.isVisible()) {
+				invisibleCount++;
+			}
+			if (current instanceof ScrollPane && current != node) {
+				scrollPanes.add((ScrollPane) current);
+			}
+		}
+	}
+	
+	private void detach() {
+		for (Node current : chain) {
+			current.visibleProperty().removeListener(weakVisibleListener);
+			current.parentProperty().removeListener(weakParentListener);
+		}
+		chain.clear();
+		scrollPanes.clear();
+		invisibleCount = 0;
+	}
+	
+	private void fireIfChanged(boolean wasVisible) {
+		if (wasVisible != isVisible()) {
+			onChange.run();
+		}
+	}
+}
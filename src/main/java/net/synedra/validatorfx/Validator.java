@@ -1,18 +1,28 @@
 package net.synedra.validatorfx;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
 
 import javafx.beans.binding.Bindings;
+import javafx.beans.binding.ObjectBinding;
 import javafx.beans.binding.StringBinding;
 import javafx.beans.property.ReadOnlyBooleanProperty;
 import javafx.beans.property.ReadOnlyBooleanWrapper;
+import javafx.beans.property.ReadOnlyIntegerProperty;
+import javafx.beans.property.ReadOnlyIntegerWrapper;
 import javafx.beans.property.ReadOnlyObjectProperty;
 import javafx.beans.property.ReadOnlyObjectWrapper;
 import javafx.beans.value.ChangeListener;
+import javafx.scene.Scene;
+import javafx.util.Duration;
 
 /** A Validator collects several checks and sums up their ValidationResults.
  * @author r.lichtenberger@synedra.com
@@ -20,9 +30,30 @@ import javafx.beans.value.ChangeListener;
 public class Validator {
 
     private Map<Check, ChangeListener<ValidationResult>> checks = new LinkedHashMap<>();
-    private ReadOnlyObjectWrapper<ValidationResult> validationResultProperty = new ReadOnlyObjectWrapper<>(new ValidationResult());
+    private ObjectBinding<ValidationResult> aggregatedResult = new ObjectBinding<>() {
+		@Override
+		protected ValidationResult computeValue() {
+			ValidationResult result = new ValidationResult();
+			for (Check check : checks.keySet()) {
+				result.addAll(check.getValidationResult().getMessages());
+			}
+			return result;
+		}
+    };
+    private ReadOnlyObjectWrapper<ValidationResult> validationResultProperty = new ReadOnlyObjectWrapper<>();
     private ReadOnlyBooleanWrapper containsWarningsProperty = new ReadOnlyBooleanWrapper();
     private ReadOnlyBooleanWrapper containsErrorsProperty = new ReadOnlyBooleanWrapper();
+    private ReadOnlyIntegerWrapper warningCountProperty = new ReadOnlyIntegerWrapper();
+    private ReadOnlyIntegerWrapper errorCountProperty = new ReadOnlyIntegerWrapper();
+    private int warningCount;
+    private int errorCount;
+    private ForkJoinPool parallelPool;
+    private int suspendCount;
+    private boolean refreshDeferred;
+    
+    public Validator() {
+    	validationResultProperty.bind(aggregatedResult);	// the aggregated result is only rebuilt when someone asks for it
+    }
     
     /** Create a check that lives within this checker's domain.
      * @return A check object whose dependsOn, decorates, etc. methods can be called
@@ -37,9 +68,23 @@ public class Validator {
      * @param check The check to add.
      */
 	public void add(Check check) {		
-		ChangeListener<ValidationResult> listener = (obs, oldv, newv) -> refreshProperties();
+		if (checks.containsKey(check)) {
+			return;
+		}
+		ChangeListener<ValidationResult> listener = (obs, oldv, newv) -> {
+			count(oldv, -1);
+			count(newv, 1);
+			refreshProperties();
+		};
 		checks.put(check, listener);
 		check.validationResultProperty().addListener(listener);
+		if (suspendCount > 0) {
+			check.suspend();
+		}
+		if (!check.getValidationResult().getMessages().isEmpty()) {
+			count(check.getValidationResult(), 1);
+			refreshProperties();
+		}
 	}
 	
 	/** Removes a check from this validator.
@@ -49,9 +94,13 @@ public class Validator {
 		ChangeListener<ValidationResult> listener = checks.remove(check);
 		if (listener != null) {
 			check.validationResultProperty().removeListener(listener);
+			count(check.getValidationResult(), -1);
 		}
 		refreshProperties();
 		check.clear();
+		if (listener != null && suspendCount > 0) {
+			check.resume();	// nothing to recheck after clear()
+		}
 	}
 		
 	/** Retrieves current validation result
@@ -86,14 +135,189 @@ public class Validator {
 		return containsErrorsProperty().get();
 	}
 	
+	/** A read-only integer property holding the number of warnings emitted by the checks of this validator. */
+	public ReadOnlyIntegerProperty warningCountProperty() {
+		return warningCountProperty.getReadOnlyProperty();
+	}
+	
+	public int getWarningCount() {
+		return warningCountProperty().get();
+	}
+	
+	/** A read-only integer property holding the number of errors emitted by the checks of this validator. */
+	public ReadOnlyIntegerProperty errorCountProperty() {
+		return errorCountProperty.getReadOnlyProperty();
+	}
+	
+	public int getErrorCount() {
+		return errorCountProperty().get();
+	}
+	
 	/** Run all checks (decorating nodes if appropriate)
-	 * @return true if no errors were found, false otherwise
+	 * Async check methods (see {@link Check#withAsyncMethod(java.util.function.Consumer)}) have not reported when this method returns, 
+	 * so false is returned as long as any check is still pending (see {@link #isPending()}); the validation result is updated once they have finished.
+	 * @return true if no errors were found and no check is pending, false otherwise
 	 */
 	public boolean validate() {
+		batch(() -> {
+			if (parallelPool == null) {
+				for (Check check : checks.keySet()) {
+					check.recheck();
+				}
+			} else {
+				recheckInParallel();
+			}
+		});
+		return errorCount == 0 && !isAnyCheckPending();	// properties are not up to date if we are inside an enclosing batch
+	}
+	
+	/** Whether any check of this validator is waiting for a scheduled recheck or for async check methods to finish (see {@link Check#isPending()}).
+	 * @return true if the validation result may still change without further changes of dependencies
+	 */
+	public boolean isPending() {
+		return isAnyCheckPending();
+	}
+	
+	private boolean isAnyCheckPending() {
+		for (Check check : checks.keySet()) {
+			if (check.isPending()) {
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	private void recheckInParallel() {
+		List<Check.Evaluation> evaluations = new ArrayList<>(checks.size());
+		for (Check check : checks.keySet()) {
+			Check.Evaluation evaluation = check.prepareRecheck();
+			if (evaluation != null) {
+				evaluations.add(evaluation);
+			}
+		}
+		if (evaluations.size() > 1) {
+			List<Callable<Void>> tasks = new ArrayList<>(evaluations.size());
+			for (Check.Evaluation evaluation : evaluations) {
+				tasks.add(() -> {
+					evaluation.evaluateSync();
+					return null;
+				});
+			}
+			parallelPool.invokeAll(tasks);	// evaluateSync() does not throw, failures are rethrown by finishRecheck()
+		} else {
+			evaluations.forEach(Check.Evaluation::evaluateSync);
+		}
+		RuntimeException failure = null;
+		for (Check.Evaluation evaluation : evaluations) {
+			try {
+				evaluation.getCheck().finishRecheck(evaluation);
+			} catch (RuntimeException e) {
+				failure = addFailure(failure, e);
+			}
+		}
+		if (failure != null) {
+			throw failure;
+		}
+	}
+	
+	private static RuntimeException addFailure(RuntimeException failure, RuntimeException e) {
+		if (failure == null) {
+			return e;
+		}
+		failure.addSuppressed(e);
+		return failure;
+	}
+	
+	/** Let {@link #validate()} evaluate the check methods of all checks in parallel using the common fork/join pool.
+	 * @see #parallel(ForkJoinPool)
+	 */
+	public void parallel() {
+		parallel(ForkJoinPool.commonPool());
+	}
+	
+	/** Let {@link #validate()} evaluate the check methods of all checks in parallel using the given pool.
+	 * Dependencies are still read and decorations are still updated on the JavaFX application thread, 
+	 * but the (synchronous) check methods are run concurrently, so they must not access the scene graph or any other shared state that is not thread safe.
+	 * The JavaFX application thread waits until all check methods have finished.
+	 * @param pool The pool to evaluate check methods in
+	 */
+	public void parallel(ForkJoinPool pool) {
+		parallelPool = Objects.requireNonNull(pool);
+	}
+	
+	/** Let {@link #validate()} evaluate all checks one after another on the calling thread (the default). */
+	public void sequential() {
+		parallelPool = null;
+	}
+	
+	/** Run code with all checks of this validator suspended (see {@link #suspend()}).
+	 * Use this e.g. when loading a record into a form in order to perform only a single recheck per check and a single update of this validator's properties.
+	 * Style class and pseudo class decorations are only updated once the batch ends and only if their net state changed.
+	 * @param code The code to run
+	 */
+	public void batch(Runnable code) {
+		DecorationBatch.begin();
+		try {
+			suspend();
+			try {
+				code.run();
+			} finally {
+				resume();
+			}
+		} finally {
+			DecorationBatch.end();
+		}
+	}
+	
+	/** Suspends rechecks of all checks triggered by dependency changes as well as updates of this validator's properties until {@link #resume()} is called.
+	 * Calls may be nested.
+	 */
+	public void suspend() {
+		suspendCount++;
+		if (suspendCount == 1) {
+			for (Check check : checks.keySet()) {
+				check.suspend();
+			}
+		}
+	}
+	
+	/** Ends a suspension started by {@link #suspend()}. 
+	 * Each check whose dependencies changed while suspended is rechecked once, then this validator's properties are updated once.
+	 * @throws IllegalStateException if this validator is not suspended
+	 */
+	public void resume() {
+		if (suspendCount == 0) {
+			throw new IllegalStateException("Validator is not suspended");
+		}
+		if (suspendCount > 1) {
+			suspendCount--;
+			return;
+		}
+		RuntimeException failure = null;
 		for (Check check : checks.keySet()) {
-			check.recheck();
+			try {
+				check.resume();	// may trigger refreshProperties, which is still deferred here 
+			} catch (RuntimeException e) {
+				failure = addFailure(failure, e);	// resume the remaining checks nevertheless
+			}
+		}
+		suspendCount = 0;
+		if (refreshDeferred) {
+			refreshProperties();
+		}
+		if (failure != null) {
+			throw failure;
 		}
-		return ! containsErrors();
+	}
+	
+	/** Prepare the given scene for showing graphic decorations of this validator's checks.
+	 * This installs the decoration overlay and creates default decoration nodes in advance, 
+	 * so the first validation showing decorations does not have to. Call it e.g. right after the scene has been set up.
+	 * @param scene The scene the decorated nodes live in
+	 */
+	public void prepare(Scene scene) {
+		GraphicDecorationStackPane.install(scene);
+		DefaultDecoration.prepare(checks.size());
 	}
 	
 	/** Clear all validations (i.e. remove decorations an clear validations result. */
@@ -110,6 +334,16 @@ public class Validator {
 		}
 	}
 	
+	/** Set all checks (that are currently added to the validator) to debounced immediate mode.
+	 * @param debounce The quiet period to wait for after the last change of a dependency
+	 * @see Check#immediate(Duration)
+	 */
+	public void immediate(Duration debounce) {
+		for (Check check : checks.keySet()) {
+			check.immediate(debounce);
+		}
+	}
+	
 	/** Set all checks (that are currently added to the validator) to immediate clear mode. */
 	public void immediateClear() {
 		for (Check check : checks.keySet()) {
@@ -125,19 +359,29 @@ public class Validator {
 	}
 
 	private void refreshProperties() {
-		ValidationResult nextResult = new ValidationResult();
-		for (Check check : checks.keySet()) {
-			nextResult.addAll(check.getValidationResult().getMessages());
+		if (suspendCount > 0) {
+			refreshDeferred = true;
+			return;
 		}
-		validationResultProperty.set(nextResult);
-		boolean hasWarnings = false;
-		boolean hasErrors = false;
-		for (ValidationMessage msg : nextResult.getMessages()) {
-			hasWarnings = hasWarnings || msg.getSeverity() == Severity.WARNING; 
-			hasErrors = hasErrors || msg.getSeverity() == Severity.ERROR; 
+		refreshDeferred = false;
+		aggregatedResult.invalidate();
+		warningCountProperty.set(warningCount);
+		errorCountProperty.set(errorCount);
+		containsWarningsProperty.set(warningCount > 0);
+		containsErrorsProperty.set(errorCount > 0);
+	}
+	
+	private void count(ValidationResult result, int delta) {
+		if (result == null) {
+			return;
+		}
+		for (ValidationMessage msg : result.getMessages()) {
+			if (msg.getSeverity() == Severity.ERROR) {
+				errorCount += delta;
+			} else if (msg.getSeverity() == Severity.WARNING) {
+				warningCount += delta;
+			}
 		}
-		containsWarningsProperty.set(hasWarnings);
-		containsErrorsProperty.set(hasErrors);
 	}
 	
 	/** Create a string property that depends on the validation result.
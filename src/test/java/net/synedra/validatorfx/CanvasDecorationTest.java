@@ -0,0 +1,103 @@
+package net.synedra.validatorfx;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.testfx.api.FxRobot;
+import org.testfx.framework.junit5.ApplicationExtension;
+import org.testfx.framework.junit5.Start;
+import org.testfx.util.WaitForAsyncUtils;
+
+import javafx.geometry.Pos;
+import javafx.scene.Scene;
+import javafx.scene.control.Tooltip;
+import javafx.scene.image.Image;
+import javafx.scene.layout.VBox;
+import javafx.scene.shape.Rectangle;
+import javafx.stage.Stage;
+
+@ExtendWith(ApplicationExtension.class)
+class CanvasDecorationTest extends TestBase {
+
+	private VBox root;
+	private Rectangle target;
+	private Rectangle secondTarget;
+
+	@Start
+	private void setupScene(Stage stage) {
+		root = new VBox();
+		target = new Rectangle(100, 100);
+		secondTarget = new Rectangle(100, 100);
+		root.getChildren().addAll(target, secondTarget);
+		stage.setScene(new Scene(root, 640, 400));
+		stage.show();
+	}
+
+	@Test
+	void testSharedCanvas() {
+		CanvasDecoration first = fx(() -> DefaultDecoration.createCanvasDecoration(new ValidationMessage(Severity.ERROR, "error")));
+		CanvasDecoration second = fx(() -> DefaultDecoration.createCanvasDecoration(new ValidationMessage(Severity.WARNING, "warning")));
+		assertNull(first.getDecorationNode());
+		fx(() -> {
+			first.add(target);
+			second.add(secondTarget);
+		});
+		WaitForAsyncUtils.waitForFxEvents();
+		
+		GraphicDecorationStackPane stack = (GraphicDecorationStackPane) target.getScene().getRoot();
+		assertEquals(2, stack.getChildren().size());	// the original root and the canvas
+		assertEquals(1, stack.getChildren().stream().filter(node -> node instanceof DecorationCanvas).count());
+		assertEquals(-first.getImage().getWidth() / 2, first.getX(), 1);
+		assertEquals(100 - second.getImage().getHeight() / 2, second.getY(), 1);
+		
+		fx(() -> {
+			first.remove(target);
+			second.remove(secondTarget);
+		});
+		assertEquals(2, stack.getChildren().size());
+	}
+
+	@Test
+	void testPosition() {
+		CanvasDecoration decoration = fx(() -> DefaultDecoration.createCanvasDecoration(new ValidationMessage(Severity.ERROR, "error")));
+		Image image = decoration.getImage();
+		CanvasDecoration centered = new CanvasDecoration(image, "centered", null, Pos.CENTER, 3, 4);
+		fx(() -> centered.add(target));
+		WaitForAsyncUtils.waitForFxEvents();
+		assertEquals(50 - image.getWidth() / 2 + 3, centered.getX(), 1);
+		assertEquals(50 - image.getHeight() / 2 + 4, centered.getY(), 1);
+		
+		fx(() -> target.setTranslateX(10));
+		WaitForAsyncUtils.waitForFxEvents();
+		assertEquals(60 - image.getWidth() / 2 + 3, centered.getX(), 1);
+	}
+
+	@Test
+	void testTooltipInChildOfRootMode(FxRobot robot) {
+		CanvasDecoration decoration = fx(() -> DefaultDecoration.createCanvasDecoration(new ValidationMessage(Severity.ERROR, "error")));
+		CanvasDecoration centered = new CanvasDecoration(decoration.getImage(), "centered", null, Pos.CENTER, 0, 0);
+		try {
+			fx(() -> {
+				GraphicDecorationStackPane.setOverlayMode(GraphicDecorationStackPane.OverlayMode.CHILD_OF_ROOT);
+				centered.add(target);
+			});
+			WaitForAsyncUtils.waitForFxEvents();
+			GraphicDecorationStackPane stack = GraphicDecorationStackPane.lookup(target.getScene());
+			assertSame(root, stack.getParent());
+			
+			robot.moveTo(target);
+			WaitForAsyncUtils.waitForFxEvents();
+			Tooltip tooltip = stack.getCanvas().getTooltip();
+			assertNotNull(tooltip);
+			assertTrue(tooltip.isShowing());
+			assertEquals("centered", tooltip.getText());
+		} finally {
+			GraphicDecorationStackPane.setOverlayMode(GraphicDecorationStackPane.OverlayMode.WRAP_ROOT);
+		}
+	}
+}
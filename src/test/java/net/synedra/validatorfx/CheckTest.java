@@ -1,8 +1,16 @@
 package net.synedra.validatorfx;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -13,17 +21,20 @@ import org.testfx.util.WaitForAsyncUtils;
 
 import javafx.beans.property.SimpleStringProperty;
 import javafx.beans.property.StringProperty;
+import javafx.scene.Node;
 import javafx.scene.Scene;
 import javafx.scene.control.TextField;
 import javafx.scene.input.KeyCode;
 import javafx.scene.layout.StackPane;
+import javafx.scene.shape.Rectangle;
 import javafx.stage.Stage;
+import javafx.util.Duration;
 
 /** CheckTest tests Check.
  * @author r.lichtenberger@synedra.com
  */
 @ExtendWith(ApplicationExtension.class)
-class CheckTest {
+class CheckTest extends TestBase {
 	
 	private static final String WARNING = "This is a warning.";
 
@@ -65,6 +76,346 @@ class CheckTest {
 		checkMessage(c, Severity.ERROR, "Must not be bar");
 	}
 	
+	@Test
+	void testDebouncedImmediate() {
+		StringProperty text = new SimpleStringProperty("foo");
+		AtomicInteger evaluations = new AtomicInteger();
+		Check c = new Check()
+			.withMethod(ctx -> {
+				evaluations.incrementAndGet();
+				check2(ctx);
+			})
+			.dependsOn("content", text);
+		fx(() -> c.immediate(Duration.millis(200)));
+		WaitForAsyncUtils.waitForFxEvents(); // .immediate() will call the initial update delayed, so we have to wait
+		checkMessage(c, Severity.ERROR, "Must not be foo");
+		assertFalse(c.isPending());
+		
+		evaluations.set(0);
+		fx(() -> {
+			text.set("b");
+			text.set("ba");
+			text.set("bar");
+		});
+		assertTrue(c.isPending());
+		checkMessage(c, Severity.ERROR, "Must not be foo");
+		
+		WaitForAsyncUtils.sleep(500, TimeUnit.MILLISECONDS);
+		WaitForAsyncUtils.waitForFxEvents();
+		assertFalse(c.isPending());
+		assertEquals(1, evaluations.get());
+		checkMessage(c, Severity.ERROR, "Must not be bar");
+	}
+	
+	@Test
+	void testDebounceFinishingWhileSuspended() {
+		StringProperty text = new SimpleStringProperty("foo");
+		AtomicInteger evaluations = new AtomicInteger();
+		Check c = new Check()
+			.withMethod(ctx -> {
+				evaluations.incrementAndGet();
+				check2(ctx);
+			})
+			.dependsOn("content", text);
+		fx(() -> c.immediate(Duration.millis(100)));
+		WaitForAsyncUtils.waitForFxEvents();
+		evaluations.set(0);
+		
+		fx(() -> {
+			text.set("bar");
+			c.suspend();
+		});
+		WaitForAsyncUtils.sleep(300, TimeUnit.MILLISECONDS);
+		WaitForAsyncUtils.waitForFxEvents();
+		assertEquals(0, evaluations.get());	// deferred until resumed
+		checkMessage(c, Severity.ERROR, "Must not be foo");
+		
+		fx(c::resume);
+		assertEquals(1, evaluations.get());
+		assertFalse(c.isPending());
+		checkMessage(c, Severity.ERROR, "Must not be bar");
+	}
+	
+	@Test
+	void testAsyncMethod() throws TimeoutException {
+		StringProperty text = new SimpleStringProperty("foo");
+		CountDownLatch release = new CountDownLatch(1);
+		Check c = new Check()
+			.withAsyncMethod(ctx -> {
+				if ("foo".equals(ctx.get("content"))) {
+					awaitQuietly(release);
+				}
+				check2(ctx);
+			})
+			.withExecutor(runnable -> new Thread(runnable).start())
+			.dependsOn("content", text);
+		
+		fx(c::recheck);
+		assertTrue(c.isPending());
+		checkNoMessage(c);
+		
+		// a newer recheck supersedes the one still running ...
+		fx(() -> text.set("bar"));
+		fx(c::recheck);
+		WaitForAsyncUtils.waitFor(5, TimeUnit.SECONDS, () -> !c.isPending());
+		checkMessage(c, Severity.ERROR, "Must not be bar");
+		
+		// ... so the result of the former must be discarded when it finally finishes
+		release.countDown();
+		WaitForAsyncUtils.sleep(200, TimeUnit.MILLISECONDS);
+		WaitForAsyncUtils.waitForFxEvents();
+		checkMessage(c, Severity.ERROR, "Must not be bar");
+	}
+	
+	@Test
+	void testPendingWhileSkipped() throws TimeoutException {
+		StringProperty text = new SimpleStringProperty("foo");
+		CountDownLatch release = new CountDownLatch(1);
+		Check c = new Check()
+			.withAsyncMethod(ctx -> {
+				awaitQuietly(release);
+				check2(ctx);
+			})
+			.withExecutor(runnable -> new Thread(runnable).start())
+			.dependsOn("content", text)
+			.skipUnchanged();
+		
+		fx(c::recheck);
+		assertTrue(c.isPending());
+		fx(c::recheck);	// skipped, but the async method is still running
+		assertEquals(1, c.getSkippedEvaluations());
+		assertTrue(c.isPending());
+		
+		release.countDown();
+		WaitForAsyncUtils.waitFor(5, TimeUnit.SECONDS, () -> !c.isPending());
+		checkMessage(c, Severity.ERROR, "Must not be foo");
+	}
+	
+	@Test
+	void testSkipUnchanged() {
+		StringProperty text = new SimpleStringProperty("foo");
+		AtomicInteger evaluations = new AtomicInteger();
+		Check c = new Check()
+			.withMethod(ctx -> {
+				evaluations.incrementAndGet();
+				check2(ctx);
+			})
+			.dependsOn("content", text);
+		
+		// not skipped by default
+		c.recheck();
+		c.recheck();
+		assertEquals(2, evaluations.get());
+		assertEquals(0, c.getSkippedEvaluations());
+		
+		c.skipUnchanged();
+		c.recheck();
+		checkMessage(c, Severity.ERROR, "Must not be foo");
+		assertEquals(2, evaluations.get());
+		assertEquals(2, c.getExecutedEvaluations());
+		assertEquals(1, c.getSkippedEvaluations());
+		
+		text.set("bar");
+		c.recheck();
+		checkMessage(c, Severity.ERROR, "Must not be bar");
+		assertEquals(3, evaluations.get());
+		
+		// clearing must not let the next recheck be skipped
+		c.clear();
+		c.recheck();
+		checkMessage(c, Severity.ERROR, "Must not be bar");
+		assertEquals(4, evaluations.get());
+		
+		c.skipUnchanged(false);
+		c.recheck();
+		assertEquals(5, evaluations.get());
+		assertEquals(5, c.getExecutedEvaluations());
+		assertEquals(1, c.getSkippedEvaluations());
+	}
+	
+	@Test
+	void testFailureNotSkipped() {
+		StringProperty text = new SimpleStringProperty("foo");
+		AtomicInteger failures = new AtomicInteger(1);
+		Check c = new Check()
+			.withMethod(ctx -> {
+				if (failures.getAndDecrement() > 0) {
+					throw new IllegalStateException("failed");
+				}
+				check2(ctx);
+			})
+			.dependsOn("content", text)
+			.skipUnchanged();
+		
+		assertThrows(IllegalStateException.class, c::recheck);
+		c.recheck();	// same values, but the failed evaluation must not count
+		checkMessage(c, Severity.ERROR, "Must not be foo");
+		assertEquals(0, c.getSkippedEvaluations());
+	}
+	
+	@Test
+	void testSelectiveEvaluation() {
+		StringProperty first = new SimpleStringProperty("a");
+		StringProperty second = new SimpleStringProperty("b");
+		AtomicInteger firstEvaluations = new AtomicInteger();
+		AtomicInteger secondEvaluations = new AtomicInteger();
+		Check c = new Check()
+			.dependsOn("first", first)
+			.dependsOn("second", second)
+			.withMethod(ctx -> {
+				firstEvaluations.incrementAndGet();
+				ctx.error("first is " + ctx.get("first"));
+			})
+			.withMethod(ctx -> {
+				secondEvaluations.incrementAndGet();
+				ctx.error("second is " + ctx.get("second"));
+			})
+			.skipUnchanged();
+		
+		c.recheck();
+		checkMessage(c, Severity.ERROR, "first is a", "second is b");
+		
+		// only the method reading the changed dependency is reevaluated, the other one's messages are reused
+		second.set("c");
+		c.recheck();
+		checkMessage(c, Severity.ERROR, "first is a", "second is c");
+		assertEquals(1, firstEvaluations.get());
+		assertEquals(2, secondEvaluations.get());
+		
+		first.set("d");
+		c.recheck();
+		checkMessage(c, Severity.ERROR, "first is d", "second is c");
+		assertEquals(2, firstEvaluations.get());
+		assertEquals(2, secondEvaluations.get());
+	}
+	
+	@Test
+	void testMemoize() {
+		StringProperty text = new SimpleStringProperty("foo");
+		AtomicInteger evaluations = new AtomicInteger();
+		Check c = new Check()
+			.withMethod(ctx -> {
+				evaluations.incrementAndGet();
+				check2(ctx);
+			})
+			.dependsOn("content", text)
+			.memoize(2);
+		
+		c.recheck();
+		text.set("bar");
+		c.recheck();
+		text.set("foo");
+		c.recheck();
+		checkMessage(c, Severity.ERROR, "Must not be foo");
+		assertEquals(2, evaluations.get());
+		assertEquals(1, c.getCacheHits());
+		assertEquals(2, c.getCacheMisses());
+		assertEquals(0, c.getCacheEvictions());
+		
+		// "bar" is the least recently used value now and gets evicted
+		text.set("baz");
+		c.recheck();
+		checkMessage(c, Severity.ERROR, "Must not be baz");
+		assertEquals(1, c.getCacheEvictions());
+		text.set("bar");
+		c.recheck();
+		checkMessage(c, Severity.ERROR, "Must not be bar");
+		assertEquals(4, evaluations.get());
+		assertEquals(4, c.getCacheMisses());
+	}
+	
+	@Test
+	void testInvalidMemoize() {
+		assertThrows(IllegalArgumentException.class, () -> new Check().memoize(-1));
+	}
+	
+	@Test
+	void testDecorationReconciliation() {
+		StringProperty text = new SimpleStringProperty("  ");
+		List<String> decorationLog = new ArrayList<>();
+		Rectangle target = new Rectangle(10, 10);
+		Check c = new Check()
+				.withMethod(this::mustNotBeEmpty)
+				.withMethod(this::checkLength)
+				.dependsOn("text", text)
+				.decorates(target)
+				.decoratingWith(m -> new Decoration() {
+					@Override
+					public void add(Node node) {
+						decorationLog.add("+" + m.getText());
+					}
+					
+					@Override
+					public void remove(Node node) {
+						decorationLog.add("-" + m.getText());
+					}
+				});
+		
+		c.recheck();
+		assertEquals(List.of("+Cannot be empty"), decorationLog);
+		
+		// the decoration for the message that is still present must be kept
+		decorationLog.clear();
+		text.set("           ");
+		c.recheck();
+		assertEquals(List.of("+Too long"), decorationLog);
+		
+		decorationLog.clear();
+		text.set("12345678901");
+		c.recheck();
+		assertEquals(List.of("-Cannot be empty"), decorationLog);
+		
+		decorationLog.clear();
+		c.clear();
+		assertEquals(List.of("-Too long"), decorationLog);
+	}
+	
+	@Test
+	void testMergingDecorations() {
+		StringProperty text = new SimpleStringProperty("           ");
+		List<ValidationMessage> decorated = new ArrayList<>();
+		Rectangle target = new Rectangle(10, 10);
+		Check c = new Check()
+				.withMethod(this::mustNotBeEmpty)
+				.withMethod(this::checkLength)
+				.withMethod(cx -> cx.warn("Just saying"))
+				.dependsOn("text", text)
+				.decorates(target)
+				.decoratingWith(m -> new Decoration() {
+					@Override
+					public void add(Node node) {
+						decorated.add(m);
+					}
+					
+					@Override
+					public void remove(Node node) {
+						decorated.remove(m);
+					}
+				})
+				.mergingDecorations();
+		
+		c.recheck();
+		assertEquals(3, c.getValidationResult().getMessages().size());
+		assertEquals(List.of(new ValidationMessage(Severity.ERROR, "Cannot be empty\nToo long\nJust saying")), decorated);
+		
+		text.set("ok");
+		c.recheck();
+		assertEquals(List.of(new ValidationMessage(Severity.WARNING, "Just saying")), decorated);
+		
+		text.set("");
+		c.recheck();
+		c.mergingDecorations(false);
+		assertEquals(2, decorated.size());
+	}
+	
+	private void awaitQuietly(CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+	
 	@Test
 	void testImmediateClear() {
 		StringProperty text = new SimpleStringProperty("foo"); 
@@ -89,6 +440,32 @@ class CheckTest {
 		c.error("Must not be " + c.get("content"));
 	}
 
+	@Test
+	void testDependencyKey() {
+		StringProperty text = new SimpleStringProperty("foo");
+		Check c = new Check();
+		DependencyKey<String> content = c.dependsOn(text);
+		c.withMethod(ctx -> {
+			String value = ctx.get(content);
+			ctx.error("Must not be " + value);
+		});
+		
+		c.recheck();
+		checkMessage(c, Severity.ERROR, "Must not be foo");
+		
+		text.set("bar");
+		c.recheck();
+		checkMessage(c, Severity.ERROR, "Must not be bar");
+	}
+	
+	@Test
+	void testForeignDependencyKey() {
+		DependencyKey<String> foreign = new Check().dependsOn(new SimpleStringProperty("foo"));
+		Check c = new Check()
+			.withMethod(ctx -> ctx.get(foreign));
+		assertThrows(IllegalArgumentException.class, c::recheck);
+	}
+	
 	@Test
 	void testMultipleMethods() {
 		StringProperty text = new SimpleStringProperty("foo");
@@ -2,6 +2,9 @@ package net.synedra.validatorfx;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 
 import java.util.function.Function;
 
@@ -9,6 +12,10 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.testfx.framework.junit5.ApplicationExtension;
 
+import javafx.scene.Node;
+import javafx.scene.control.Label;
+import javafx.scene.layout.HBox;
+
 @ExtendWith(ApplicationExtension.class)
 class DefaultDecorationTest extends TestBase {
 
@@ -38,4 +45,47 @@ class DefaultDecorationTest extends TestBase {
 		GraphicDecoration decoration = DefaultDecoration.createGraphicDecoration(message);
 		assertNotNull(decoration);
 	}
+	
+	@Test
+	void testNodePooling() {
+		HBox target = new HBox();
+		GraphicDecoration first = fx(() -> DefaultDecoration.createGraphicDecoration(new ValidationMessage(Severity.ERROR, "first")));
+		Node node = first.peekDecorationNode();
+		fx(() -> {
+			first.add(target);
+			first.remove(target);
+		});
+		
+		GraphicDecoration second = fx(() -> DefaultDecoration.createGraphicDecoration(new ValidationMessage(Severity.ERROR, "second")));
+		assertSame(node, second.peekDecorationNode());
+		assertEquals("second", DefaultDecoration.getTooltipText(node));
+		assertNull(((Label) node).getTooltip());	// created on first hover only
+		
+		GraphicDecoration warning = fx(() -> DefaultDecoration.createGraphicDecoration(new ValidationMessage(Severity.WARNING, "warning")));
+		assertNotSame(node, warning.peekDecorationNode());
+	}
+	
+	@Test
+	void testTooltipOfHandedOutNode() {
+		GraphicDecoration decoration = fx(() -> DefaultDecoration.createGraphicDecoration(new ValidationMessage(Severity.WARNING, "handed out")));
+		Label label = (Label) decoration.getDecorationNode();
+		assertNotNull(label.getTooltip());	// available for customization right away
+		assertEquals("handed out", label.getTooltip().getText());
+	}
+	
+	@Test
+	void testCustomizedNodeNotPooled() {
+		HBox target = new HBox();
+		GraphicDecoration customized = fx(() -> DefaultDecoration.createGraphicDecoration(new ValidationMessage(Severity.ERROR, "customized")));
+		Node node = customized.getDecorationNode();
+		node.setStyle("-fx-background-color: red;");
+		fx(() -> {
+			customized.add(target);
+			customized.remove(target);
+		});
+		assertSame(node, customized.getDecorationNode());	// kept by the decoration that handed it out
+		
+		GraphicDecoration other = fx(() -> DefaultDecoration.createGraphicDecoration(new ValidationMessage(Severity.ERROR, "other")));
+		assertNotSame(node, other.peekDecorationNode());
+	}
 }
@@ -0,0 +1,146 @@
+package net.synedra.validatorfx;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.testfx.api.FxRobot;
+import org.testfx.framework.junit5.ApplicationExtension;
+import org.testfx.framework.junit5.Start;
+import org.testfx.util.WaitForAsyncUtils;
+
+import javafx.beans.property.SimpleBooleanProperty;
+import javafx.beans.property.SimpleStringProperty;
+import javafx.scene.Scene;
+import javafx.scene.control.Button;
+import javafx.scene.control.ScrollPane;
+import javafx.scene.control.Tooltip;
+import javafx.scene.layout.StackPane;
+import javafx.scene.layout.VBox;
+import javafx.scene.shape.Rectangle;
+import javafx.stage.Stage;
+
+/** DisabledTooltipTest tests DisabledTooltip.
+ * @author r.lichtenberger@synedra.com
+ */
+@ExtendWith(ApplicationExtension.class)
+class DisabledTooltipTest extends TestBase {
+
+	private VBox root;
+
+	@Start
+	private void setupScene(Stage stage) {
+		root = new VBox();
+		stage.setScene(new Scene(root, 640, 400));
+		stage.show();
+	}
+
+	@BeforeEach
+	public void resetRoot() {
+		fx(root.getChildren()::clear);
+	}
+
+	@Test
+	void testDisabling() {
+		SimpleBooleanProperty disable = new SimpleBooleanProperty(false);
+		Button button = new Button("test");
+		DisabledTooltip disabledTooltip = DisabledTooltip.install(button, disable, new SimpleStringProperty("foobar"));
+		assertSame(disabledTooltip, DisabledTooltip.get(button));
+		assertEquals(button, disabledTooltip.getNode());
+		assertEquals("foobar", disabledTooltip.getText());
+		assertFalse(button.isDisabled());
+		disable.set(true);
+		assertTrue(button.isDisabled());
+		
+		disabledTooltip.uninstall();
+		assertNull(DisabledTooltip.get(button));
+		disable.set(false);
+		assertTrue(button.isDisabled());	// no longer bound
+	}
+
+	@Test
+	void testSharedBetweenNodes() {
+		Scene scene = root.getScene();
+		Button first = new Button("first");
+		Button second = new Button("second");
+		DisabledTooltip.install(first, new SimpleBooleanProperty(true), new SimpleStringProperty("first"));
+		DisabledTooltip.install(second, new SimpleBooleanProperty(true), new SimpleStringProperty("second"));
+		assertNull(DisabledTooltip.getSharedTooltip(scene));
+		
+		fx(() -> root.getChildren().addAll(first, second));
+		Tooltip tooltip = DisabledTooltip.getSharedTooltip(scene);
+		assertNotNull(tooltip);
+		
+		fx(() -> root.getChildren().remove(first));
+		assertSame(tooltip, DisabledTooltip.getSharedTooltip(scene));
+		fx(() -> root.getChildren().remove(second));
+		assertNull(DisabledTooltip.getSharedTooltip(scene));	// listeners are released once no node is left in the scene
+	}
+
+	@Test
+	void testHover(FxRobot robot) {
+		SimpleBooleanProperty disable = new SimpleBooleanProperty(true);
+		SimpleStringProperty text = new SimpleStringProperty("Cannot sign up");
+		Button button = new Button("Sign up");
+		DisabledTooltip.install(button, disable, text);
+		fx(() -> root.getChildren().add(button));
+		Tooltip tooltip = DisabledTooltip.getSharedTooltip(root.getScene());
+		
+		// the disabled button is not picked, mouse events target the root (a Region) behind it
+		robot.moveTo(button);
+		WaitForAsyncUtils.waitForFxEvents();
+		assertTrue(button.isDisabled());
+		assertTrue(tooltip.isShowing());
+		assertEquals("Cannot sign up", tooltip.getText());
+		fx(() -> text.set("Still cannot sign up"));
+		assertEquals("Still cannot sign up", tooltip.getText());
+		
+		robot.moveBy(0, 200);
+		WaitForAsyncUtils.waitForFxEvents();
+		assertFalse(tooltip.isShowing());
+		
+		robot.moveTo(button);
+		WaitForAsyncUtils.waitForFxEvents();
+		assertTrue(tooltip.isShowing());
+		fx(() -> disable.set(false));
+		assertFalse(tooltip.isShowing());
+	}
+
+	@Test
+	void testCoveredNode(FxRobot robot) {
+		Button button = new Button("Sign up");
+		DisabledTooltip.install(button, new SimpleBooleanProperty(true), new SimpleStringProperty("Cannot sign up"));
+		Rectangle cover = new Rectangle(200, 100);
+		fx(() -> root.getChildren().add(new StackPane(button, cover)));
+		Tooltip tooltip = DisabledTooltip.getSharedTooltip(root.getScene());
+		
+		robot.moveTo(button);
+		WaitForAsyncUtils.waitForFxEvents();
+		assertFalse(tooltip.isShowing());
+		
+		fx(() -> cover.setMouseTransparent(true));
+		robot.moveBy(1, 1);
+		WaitForAsyncUtils.waitForFxEvents();
+		assertTrue(tooltip.isShowing());
+	}
+
+	@Test
+	void testScrolledOutOfView(FxRobot robot) {
+		Button button = new Button("Sign up");
+		DisabledTooltip.install(button, new SimpleBooleanProperty(true), new SimpleStringProperty("Cannot sign up"));
+		ScrollPane scrollPane = new ScrollPane(new VBox(new Rectangle(100, 150), button));
+		scrollPane.setPrefHeight(100);
+		fx(() -> root.getChildren().add(scrollPane));
+		Tooltip tooltip = DisabledTooltip.getSharedTooltip(root.getScene());
+		
+		robot.moveTo(button);	// below the ScrollPane's viewport, over the root
+		WaitForAsyncUtils.waitForFxEvents();
+		assertFalse(tooltip.isShowing());
+	}
+}
@@ -3,10 +3,12 @@ package net.synedra.validatorfx;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.lang.ref.Cleaner;
 import java.time.Instant;
+import java.util.List;
 import java.util.concurrent.TimeoutException;
 
 import org.junit.jupiter.api.Test;
@@ -20,6 +22,7 @@ import javafx.beans.property.SimpleBooleanProperty;
 import javafx.geometry.Pos;
 import javafx.scene.Node;
 import javafx.scene.Scene;
+import javafx.scene.control.ScrollPane;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.VBox;
 import javafx.scene.shape.Circle;
@@ -54,6 +57,7 @@ class GraphicDecorationTest extends TestBase {
 		fx(() -> {
 			decoration.remove(target);
 		});
+		WaitForAsyncUtils.waitForFxEvents();
 		assertNull(decorationNode.getParent());
 	}
 	
@@ -118,6 +122,41 @@ class GraphicDecorationTest extends TestBase {
 		assertEquals(-5 + 17, decorationNode.getBoundsInParent().getMinY());
 	}
 	
+	@Test
+	void testFollowsTarget() {
+		Rectangle secondDecorationNode = new Rectangle(10, 10);
+		Rectangle secondTarget = new Rectangle(100, 100);
+		fx(() -> {
+			root.getChildren().add(secondTarget);
+			new GraphicDecoration(decorationNode).add(target);
+			new GraphicDecoration(secondDecorationNode).add(secondTarget);
+		});
+		WaitForAsyncUtils.waitForFxEvents();
+		assertEquals(-5, decorationNode.getBoundsInParent().getMinX());
+		assertEquals(95, secondDecorationNode.getBoundsInParent().getMinY());
+
+		fx(() -> {
+			target.setTranslateX(20);
+			secondTarget.setTranslateY(30);
+		});
+		WaitForAsyncUtils.waitForFxEvents();
+		assertEquals(15, decorationNode.getBoundsInParent().getMinX());
+		assertEquals(125, secondDecorationNode.getBoundsInParent().getMinY());
+	}
+	
+	@Test
+	void testRepositionOncePerPulse() {
+		fx(() -> new GraphicDecoration(decorationNode).add(target));
+		double positionBeforePulse = fx(() -> {
+			target.setTranslateX(10);
+			target.setTranslateX(20);
+			return decorationNode.getBoundsInParent().getMinX();
+		});
+		assertEquals(-5, positionBeforePulse);	// transform changes only mark the decoration dirty
+		WaitForAsyncUtils.waitForFxEvents();
+		assertEquals(15, decorationNode.getBoundsInParent().getMinX());
+	}
+	
 	@Test
 	void testDecorationStackReuse() {
 		// without decoration, we don't have a decoration pane
@@ -167,6 +206,80 @@ class GraphicDecorationTest extends TestBase {
 	}
 	
 	
+	@Test
+	void testDecorationStackAfterRootChange() {
+		fx(() -> new GraphicDecoration(decorationNode).add(target));
+		assertEquals(1, countDecorationStackPanes(target));
+		Scene scene = target.getScene();
+		
+		VBox newRoot = new VBox();
+		Rectangle secondTarget = new Rectangle(100, 100);
+		Rectangle secondDecorationNode = new Rectangle(10, 10);
+		newRoot.getChildren().add(secondTarget);
+		fx(() -> {
+			scene.setRoot(newRoot);
+			new GraphicDecoration(secondDecorationNode).add(secondTarget);
+		});
+		WaitForAsyncUtils.waitForFxEvents();
+		assertEquals(1, countDecorationStackPanes(secondTarget));
+		assertEquals(scene, secondDecorationNode.getScene());
+	}
+	
+	@Test
+	void testOverlayAsChildOfRoot() {
+		GraphicDecorationStackPane.setOverlayMode(GraphicDecorationStackPane.OverlayMode.CHILD_OF_ROOT);
+		try {
+			fx(() -> new GraphicDecoration(decorationNode).add(target));
+			WaitForAsyncUtils.waitForFxEvents();	// decoration nodes are added with the next pulse
+			assertEquals(root, target.getScene().getRoot());	// root has not been replaced
+			assertEquals(0, countDecorationStackPanes(target));
+			Node overlay = decorationNode.getParent();
+			assertTrue(overlay instanceof GraphicDecorationStackPane);
+			assertEquals(root, overlay.getParent());
+			assertEquals(-5, decorationNode.getBoundsInParent().getMinX());
+			assertEquals(-5, decorationNode.getBoundsInParent().getMinY());
+			
+			fx(() -> target.setTranslateY(20));
+			WaitForAsyncUtils.waitForFxEvents();
+			assertEquals(15, decorationNode.getBoundsInParent().getMinY());
+			
+			// the overlay stays on top of children added later ...
+			fx(() -> root.getChildren().add(new Rectangle(10, 10)));
+			WaitForAsyncUtils.waitForFxEvents();
+			assertEquals(overlay, root.getChildren().get(root.getChildren().size() - 1));
+			
+			// ... and comes back if the root's children are replaced
+			fx(() -> root.getChildren().setAll(target));
+			WaitForAsyncUtils.waitForFxEvents();
+			assertEquals(List.of(target, overlay), root.getChildren());
+			assertEquals(overlay, decorationNode.getParent());
+			assertTrue(decorationNodeVisible());
+		} finally {
+			GraphicDecorationStackPane.setOverlayMode(GraphicDecorationStackPane.OverlayMode.WRAP_ROOT);
+		}
+	}
+	
+	@Test
+	void testPooledNodeReusedBeforeRemoval() {
+		GraphicDecoration first = fx(() -> DefaultDecoration.createGraphicDecoration(new ValidationMessage(Severity.ERROR, "first")));
+		Node node = first.peekDecorationNode();
+		fx(() -> first.add(target));
+		WaitForAsyncUtils.waitForFxEvents();
+		Node stack = node.getParent();
+		assertTrue(stack instanceof GraphicDecorationStackPane);
+		
+		GraphicDecoration second = fx(() -> {
+			first.remove(target);	// the node's removal is still pending when it is handed out again
+			GraphicDecoration decoration = DefaultDecoration.createGraphicDecoration(new ValidationMessage(Severity.ERROR, "second"));
+			decoration.add(target);
+			return decoration;
+		});
+		assertSame(node, second.peekDecorationNode());
+		WaitForAsyncUtils.waitForFxEvents();
+		assertSame(stack, node.getParent());
+		assertEquals("second", DefaultDecoration.getTooltipText(node));
+	}
+	
 	@Test
 	void testNonSceneNode(FxRobot robot) {
 		HBox hbox = new HBox();
@@ -179,6 +292,7 @@ class GraphicDecorationTest extends TestBase {
 		fx(() -> {
 			root.getChildren().add(hbox);
 		});
+		WaitForAsyncUtils.waitForFxEvents();
 		assertEquals(1, countDecorationStackPanes(hbox));
 		assertTrue(hasDecorationNode(robot));
 	}
@@ -206,6 +320,7 @@ class GraphicDecorationTest extends TestBase {
 			GraphicDecoration decoration = new GraphicDecoration(decorationNode);
 			decoration.add(target);
 		});
+		WaitForAsyncUtils.waitForFxEvents();
 		assertTrue(decorationNodeVisible());
 		
 		fx(() -> target.setVisible(false));
@@ -213,6 +328,72 @@ class GraphicDecorationTest extends TestBase {
 		assertFalse(decorationNodeVisible());
 	}
 	
+	@Test
+	void testToggleVisiblityWithinPulse() {
+		fx(() -> new GraphicDecoration(decorationNode).add(target));
+		fx(() -> {
+			target.setVisible(false);
+			target.getScene().getRoot().layout();	// hides the decoration node (deferred)
+			target.setVisible(true);
+		});
+		WaitForAsyncUtils.waitForFxEvents();
+		assertTrue(decorationNodeVisible());
+		assertEquals(1, target.getScene().getRoot().getChildrenUnmodifiable().stream().filter(n -> n == decorationNode).count());
+	}
+	
+	@Test
+	void testToggleAncestorVisiblity() {
+		VBox outer = new VBox();
+		VBox inner = new VBox();
+		HBox hbox = new HBox(new Rectangle(10, 10));
+		inner.getChildren().add(hbox);
+		fx(() -> {
+			root.getChildren().add(outer);
+			new GraphicDecoration(decorationNode).add(hbox);
+		});
+		fx(() -> outer.getChildren().add(inner));	// target's ancestor chain changes after decoration was added
+		WaitForAsyncUtils.waitForFxEvents();
+		assertTrue(decorationNodeVisible());
+		
+		fx(() -> outer.setVisible(false));
+		WaitForAsyncUtils.waitForFxEvents();
+		assertFalse(decorationNodeVisible());
+		
+		fx(() -> outer.setVisible(true));
+		WaitForAsyncUtils.waitForFxEvents();
+		assertTrue(decorationNodeVisible());
+		
+		fx(() -> {
+			outer.getChildren().remove(inner);
+			inner.setVisible(false);
+			root.getChildren().add(inner);
+		});
+		WaitForAsyncUtils.waitForFxEvents();
+		assertFalse(decorationNodeVisible());
+	}
+	
+	@Test
+	void testScrolledOutOfView() {
+		Rectangle farTarget = new Rectangle(100, 100);
+		VBox content = new VBox(new Rectangle(100, 2000), farTarget);
+		ScrollPane scrollPane = new ScrollPane(content);
+		scrollPane.setPrefHeight(200);
+		fx(() -> {
+			root.getChildren().add(scrollPane);
+			new GraphicDecoration(decorationNode).add(farTarget);
+		});
+		WaitForAsyncUtils.waitForFxEvents();
+		assertFalse(decorationNodeVisible());
+		
+		fx(() -> scrollPane.setVvalue(1));
+		WaitForAsyncUtils.waitForFxEvents();
+		assertTrue(decorationNodeVisible());
+		
+		fx(() -> scrollPane.setVvalue(0));
+		WaitForAsyncUtils.waitForFxEvents();
+		assertFalse(decorationNodeVisible());
+	}
+	
 	@Test
 	void testToggleTargetInScene() {
 		HBox hbox = new HBox();
@@ -0,0 +1,55 @@
+package net.synedra.validatorfx;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.testfx.framework.junit5.ApplicationExtension;
+
+import javafx.css.PseudoClass;
+import javafx.scene.shape.Rectangle;
+
+@ExtendWith(ApplicationExtension.class)
+class PseudoClassDecorationTest {
+
+	private static final PseudoClass A = PseudoClass.getPseudoClass("a");
+	private static final PseudoClass B = PseudoClass.getPseudoClass("b");
+	private static final PseudoClass OTHER = PseudoClass.getPseudoClass("other");
+
+	@Test
+	void testDecoration() {
+		Rectangle targetNode = new Rectangle(1, 2, 3, 4);
+		PseudoClassDecoration decoration = new PseudoClassDecoration(A, B);
+		decoration.add(targetNode);
+		assertTrue(targetNode.getPseudoClassStates().contains(A));
+		assertTrue(targetNode.getPseudoClassStates().contains(B));
+		assertTrue(targetNode.getStyleClass().isEmpty());
+		targetNode.pseudoClassStateChanged(OTHER, true);
+		decoration.remove(targetNode);
+		assertFalse(targetNode.getPseudoClassStates().contains(A));
+		assertFalse(targetNode.getPseudoClassStates().contains(B));
+		assertTrue(targetNode.getPseudoClassStates().contains(OTHER));
+	}
+
+	@Test
+	void testSharedPseudoClass() {
+		Rectangle targetNode = new Rectangle(1, 2, 3, 4);
+		PseudoClassDecoration first = DefaultDecoration.createPseudoClassDecoration(new ValidationMessage(Severity.ERROR, "first"));
+		PseudoClassDecoration second = DefaultDecoration.createPseudoClassDecoration(new ValidationMessage(Severity.ERROR, "second"));
+		PseudoClass error = PseudoClass.getPseudoClass("validatorfx-error");
+		first.add(targetNode);
+		second.add(targetNode);
+		first.remove(targetNode);
+		assertTrue(targetNode.getPseudoClassStates().contains(error));
+		second.remove(targetNode);
+		assertFalse(targetNode.getPseudoClassStates().contains(error));
+	}
+
+	@Test
+	void testInvalidConstructorCall() {
+		assertThrows(IllegalArgumentException.class, () -> new PseudoClassDecoration((PseudoClass []) null));
+		assertThrows(IllegalArgumentException.class, () -> new PseudoClassDecoration());
+	}
+}
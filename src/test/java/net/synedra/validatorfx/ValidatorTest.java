@@ -2,9 +2,19 @@ package net.synedra.validatorfx;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -15,6 +25,9 @@ import org.testfx.framework.junit5.Start;
 import org.testfx.util.WaitForAsyncUtils;
 
 import javafx.beans.binding.StringBinding;
+import javafx.beans.property.SimpleStringProperty;
+import javafx.beans.property.StringProperty;
+import javafx.collections.ListChangeListener;
 import javafx.scene.Scene;
 import javafx.scene.control.TextField;
 import javafx.scene.input.KeyCode;
@@ -135,7 +148,7 @@ class ValidatorTest extends TestBase {
 		assertEquals(0, validator.getValidationResult().getMessages().size());
 
 		// Immediate will show the violating vowel
-		fx(validator::immediate);
+		fx(() -> validator.immediate());
 		WaitForAsyncUtils.waitForFxEvents(); // .immediate() will call the initial update delayed, so we have to wait 
 		assertEquals(1, validator.getValidationResult().getMessages().size());
 
@@ -221,6 +234,249 @@ class ValidatorTest extends TestBase {
 		assertEquals("• Txt cntns vwls", defaultBinding.get());
 	}
 	
+	@Test
+	void testBatch() {
+		StringProperty first = new SimpleStringProperty("");
+		StringProperty last = new SimpleStringProperty("");
+		Validator validator = new Validator();
+		Check check = validator.createCheck()
+			.withMethod(c -> {
+				String f = c.get("first");
+				String l = c.get("last");
+				if (f.isEmpty() && l.isEmpty()) {
+					c.error("Name required");
+				}
+			})
+			.dependsOn("first", first)
+			.dependsOn("last", last)
+			.immediate()
+		;
+		WaitForAsyncUtils.waitForFxEvents();
+		checkMessage(validator, Severity.ERROR, "Name required");
+		
+		AtomicInteger resultChanges = new AtomicInteger();
+		validator.validationResultProperty().addListener((obs, oldv, newv) -> resultChanges.incrementAndGet());
+		long executed = check.getExecutedEvaluations();
+		
+		fx(() -> validator.batch(() -> {
+			first.set("Jane");
+			last.set("Doe");
+			first.set("John");
+			assertTrue(validator.containsErrors());	// not yet updated
+		}));
+		assertEquals(executed + 1, check.getExecutedEvaluations());
+		assertEquals(1, resultChanges.get());
+		assertFalse(validator.containsErrors());
+		
+		fx(() -> {
+			validator.suspend();
+			validator.suspend();
+			first.set("");
+			last.set("");
+			validator.resume();
+			assertFalse(validator.containsErrors());	// still suspended
+			validator.resume();
+		});
+		assertEquals(executed + 2, check.getExecutedEvaluations());
+		assertEquals(2, resultChanges.get());
+		checkMessage(validator, Severity.ERROR, "Name required");
+		
+		assertThrows(IllegalStateException.class, validator::resume);
+	}
+	
+	@Test
+	void testResumeAfterFailure() {
+		StringProperty content = new SimpleStringProperty("");
+		Validator validator = new Validator();
+		validator.createCheck()
+			.withMethod(c -> {
+				if ("boom".equals(c.get("content"))) {
+					throw new IllegalStateException("boom");
+				}
+			})
+			.dependsOn("content", content)
+			.immediate()
+		;
+		validator.createCheck()
+			.withMethod(this::noVowels)
+			.dependsOn("content", content)
+			.immediate()
+		;
+		WaitForAsyncUtils.waitForFxEvents();
+		
+		RuntimeException failure = fx(() -> {
+			try {
+				validator.batch(() -> content.set("boom"));
+				return null;
+			} catch (RuntimeException e) {
+				return e;
+			}
+		});
+		assertTrue(failure instanceof IllegalStateException);
+		assertTrue(validator.containsErrors());	// the other check has been resumed and rechecked nevertheless
+		
+		fx(() -> content.set("xyz"));
+		assertFalse(validator.containsErrors());	// ... and is no longer suspended
+	}
+	
+	@Test
+	void testValidateWithAsyncMethod() throws TimeoutException {
+		CountDownLatch release = new CountDownLatch(1);
+		Validator validator = new Validator();
+		validator.createCheck()
+			.withAsyncMethod(c -> {
+				try {
+					release.await(5, TimeUnit.SECONDS);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			})
+			.withExecutor(runnable -> new Thread(runnable).start())
+			.dependsOn("content", new SimpleStringProperty("x"))
+		;
+		assertFalse(fx(validator::validate));	// the async method has not reported yet
+		assertTrue(validator.isPending());
+		
+		release.countDown();
+		WaitForAsyncUtils.waitFor(5, TimeUnit.SECONDS, () -> !validator.isPending());
+		assertFalse(validator.containsErrors());
+	}
+	
+	@Test
+	void testCounts() {
+		StringProperty content = new SimpleStringProperty("");
+		Validator validator = new Validator();
+		Check sizeCheck = validator.createCheck()
+			.withMethod(this::maxSize)
+			.dependsOn("content", content)
+		;
+		Check vowelCheck = validator.createCheck()
+			.withMethod(this::noVowels)
+			.withMethod(c -> {
+				String text = c.get("content");
+				if (text.startsWith("e")) {
+					c.error("Starts with e");
+				}
+			})
+			.dependsOn("content", content)
+		;
+		assertEquals(0, validator.getErrorCount());
+		assertEquals(0, validator.getWarningCount());
+		
+		content.set("eeeeeee");
+		assertFalse(validator.validate());
+		assertEquals(2, validator.getErrorCount());
+		assertEquals(1, validator.getWarningCount());
+		assertTrue(validator.containsErrors());
+		assertTrue(validator.containsWarnings());
+		assertEquals(3, validator.getValidationResult().getMessages().size());
+		
+		content.set("xxxxxxx");
+		vowelCheck.recheck();
+		assertEquals(0, validator.getErrorCount());
+		assertEquals(1, validator.getWarningCount());
+		assertFalse(validator.containsErrors());
+		checkMessage(validator, Severity.WARNING, "Too long");
+		
+		validator.remove(sizeCheck);
+		assertEquals(0, validator.getWarningCount());
+		assertFalse(validator.containsWarnings());
+		assertTrue(validator.getValidationResult().getMessages().isEmpty());
+		
+		content.set("bbbbbbb");
+		sizeCheck.recheck();	// no longer part of validator
+		assertTrue(validator.validate());
+		assertEquals(0, validator.getWarningCount());
+		
+		validator.add(sizeCheck);
+		assertEquals(1, validator.getWarningCount());
+		content.set("a");
+		assertFalse(validator.validate());
+		assertEquals(1, validator.getErrorCount());
+		assertEquals(0, validator.getWarningCount());
+	}
+	
+	@Test
+	void testParallel() {
+		Validator validator = new Validator();
+		List<StringProperty> contents = new ArrayList<>();
+		Set<Thread> threads = ConcurrentHashMap.newKeySet();
+		for (int i = 0; i < 100; i++) {
+			StringProperty content = new SimpleStringProperty("x");
+			contents.add(content);
+			validator.createCheck()
+				.withMethod(c -> threads.add(Thread.currentThread()))
+				.withMethod(this::noVowels)
+				.dependsOn("content", content)
+			;
+		}
+		ForkJoinPool pool = new ForkJoinPool(4);
+		try {
+			validator.parallel(pool);
+			assertTrue(fx(validator::validate));
+			assertEquals(0, validator.getErrorCount());
+			assertFalse(threads.isEmpty());
+			assertTrue(threads.stream().allMatch(t -> t instanceof ForkJoinWorkerThread && ((ForkJoinWorkerThread) t).getPool() == pool));
+			
+			contents.get(3).set("a");
+			contents.get(42).set("e");
+			assertFalse(fx(validator::validate));
+			assertEquals(2, validator.getErrorCount());
+			
+			validator.sequential();
+			threads.clear();
+			contents.get(42).set("x");
+			assertFalse(fx(validator::validate));
+			assertEquals(1, validator.getErrorCount());
+			assertEquals(1, threads.size());
+		} finally {
+			pool.shutdown();
+		}
+	}
+	
+	@Test
+	void testPrepare() {
+		Validator validator = new Validator();
+		validator.createCheck().withMethod(this::noVowels).dependsOn("content", new SimpleStringProperty("a"));
+		Scene scene = root.getScene();
+		fx(() -> validator.prepare(scene));
+		assertTrue(scene.getRoot() instanceof GraphicDecorationStackPane);
+		assertEquals(scene.getRoot(), fx(() -> GraphicDecorationStackPane.install(scene)));	// installed only once
+		assertFalse(fx(validator::validate));
+	}
+	
+	@Test
+	void testNetDecorationChanges() {
+		StringProperty content = new SimpleStringProperty("a");
+		TextField textfield = new TextField();
+		Validator validator = new Validator();
+		validator.createCheck()
+			.withMethod(c -> {
+				String text = c.get("content");
+				if (!text.isEmpty()) {
+					c.error("Must be empty, not " + text);
+				}
+			})
+			.dependsOn("content", content)
+			.decorates(textfield)
+			.decoratingWith(DefaultDecoration::createStyleClassDecoration)
+		;
+		assertFalse(fx(validator::validate));
+		assertTrue(textfield.getStyleClass().contains("validatorfx-error"));
+		
+		AtomicInteger styleClassChanges = new AtomicInteger();
+		textfield.getStyleClass().addListener((ListChangeListener<String>) change -> styleClassChanges.incrementAndGet());
+		content.set("b");	// message changes, so decoration is replaced
+		assertFalse(fx(validator::validate));
+		assertEquals(0, styleClassChanges.get());
+		assertTrue(textfield.getStyleClass().contains("validatorfx-error"));
+		
+		content.set("");
+		assertTrue(fx(validator::validate));
+		assertEquals(1, styleClassChanges.get());
+		assertFalse(textfield.getStyleClass().contains("validatorfx-error"));
+	}
+	
 	private void maxSize(Check.Context c) {
 		String text = c.get("content");
 		if (text.length() > 5) {